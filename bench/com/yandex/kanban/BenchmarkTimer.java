@@ -0,0 +1,28 @@
+package com.yandex.kanban;
+
+import java.util.function.Supplier;
+
+//plain main-based timing for the benchmarks next to the sources, the tree has no build to host JMH.
+//results go to a volatile sink, so the JIT can't drop the measured action
+public final class BenchmarkTimer {
+    private static volatile Object sink;
+
+    private BenchmarkTimer() {
+    }
+
+    //average milliseconds per call, measured after as many warm-up calls
+    public static double millisPerCall(int calls, Supplier<?> action) {
+        for (int i = 0; i < calls; i++) {
+            sink = action.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            sink = action.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / calls;
+    }
+
+    public static void consume(Object value) {
+        sink = value;
+    }
+}
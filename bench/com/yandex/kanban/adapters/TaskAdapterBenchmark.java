@@ -0,0 +1,127 @@
+package com.yandex.kanban.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.yandex.kanban.BenchmarkTimer;
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.util.GsonHolder;
+
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+//TaskAdapter against the reflective gson setup with the TaskDeserializer it replaced,
+//throughput and bytes allocated per call. writes go to a null writer, so only serialization is measured
+//usage: TaskAdapterBenchmark [calls], 200k by default
+public class TaskAdapterBenchmark {
+    private static final Gson REFLECTIVE = new Gson().newBuilder()
+            .setPrettyPrinting()
+            .serializeNulls()
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Task.class, new TaskDeserializer())
+            .create();
+    private static final Gson STREAMING = GsonHolder.getGson();
+    private static final Writer NULL_WRITER = Writer.nullWriter();
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    //the removed TaskDeserializer: the json tree is built first, then read again by a second gson
+    private static class TaskDeserializer implements JsonDeserializer<Task> {
+        private final Gson gson = new Gson().newBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .create();
+        private final Map<String, Class<? extends Task>> taskTypeReg = Map.of(
+                "TASK", Task.class, "SUBTASK", Subtask.class, "EPIC", Epic.class);
+
+        @Override
+        public Task deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext context) {
+            JsonObject taskObj = jsonElement.getAsJsonObject();
+            return gson.fromJson(taskObj, taskTypeReg.get(taskObj.get("type").getAsString()));
+        }
+    }
+
+    private static String measure(int calls, Supplier<?> action) {
+        for (int i = 0; i < calls; i++) {
+            BenchmarkTimer.consume(action.get());
+        }
+        long thread = Thread.currentThread().threadId();
+        long allocated = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            BenchmarkTimer.consume(action.get());
+        }
+        long nanos = System.nanoTime() - start;
+        allocated = THREADS.getThreadAllocatedBytes(thread) - allocated;
+        return String.format("%,9.0f ops/s %,7d B/op", calls / (nanos / 1e9), allocated / calls);
+    }
+
+    private static void compare(String name, int calls, Supplier<?> reflective, Supplier<?> streaming) {
+        System.out.printf("  %-14s %s -> %s%n", name, measure(calls, reflective), measure(calls, streaming));
+    }
+
+    public static void main(String[] args) {
+        int calls = args.length == 0 ? 200_000 : Integer.parseInt(args[0]);
+        Subtask subtask = new Subtask("Subtask title", "Some description of the subtask", 7);
+        subtask.setId(42);
+        subtask.setStartTime(LocalDateTime.of(2024, 5, 1, 10, 30));
+        subtask.setDuration(Duration.ofMinutes(90));
+        Epic epic = new Epic("Epic title", "Some description of the epic");
+        epic.setId(7);
+        epic.setSubtasksIds(new ArrayList<>(List.of(42, 43, 44, 45, 46)));
+        List<Task> board = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Subtask boardSubtask = new Subtask("Subtask " + i, "description " + i, 7);
+            boardSubtask.setId(i);
+            boardSubtask.setStartTime(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(30L * i));
+            boardSubtask.setDuration(Duration.ofMinutes(30));
+            board.add(boardSubtask);
+        }
+        String subtaskJson = STREAMING.toJson(subtask);
+        String epicJson = STREAMING.toJson(epic);
+        if (!subtaskJson.equals(REFLECTIVE.toJson(subtask)) || !epicJson.equals(REFLECTIVE.toJson(epic))
+                || !STREAMING.toJson(board).equals(REFLECTIVE.toJson(board))) {
+            throw new IllegalStateException("TaskAdapter output differs from the reflective one");
+        }
+        //the first round is a warm-up of everything the second one measures
+        for (int round = 1; round <= 2; round++) {
+            System.out.println("round " + round + " (reflective -> TaskAdapter)");
+            compare("read subtask", calls,
+                    () -> REFLECTIVE.fromJson(subtaskJson, Task.class),
+                    () -> STREAMING.fromJson(subtaskJson, Task.class));
+            compare("read epic", calls,
+                    () -> REFLECTIVE.fromJson(epicJson, Task.class),
+                    () -> STREAMING.fromJson(epicJson, Task.class));
+            compare("write subtask", calls,
+                    () -> {
+                        REFLECTIVE.toJson(subtask, Subtask.class, NULL_WRITER);
+                        return null;
+                    },
+                    () -> {
+                        STREAMING.toJson(subtask, Subtask.class, NULL_WRITER);
+                        return null;
+                    });
+            compare("write 10k list", 50,
+                    () -> {
+                        REFLECTIVE.toJson(board, board.getClass(), NULL_WRITER);
+                        return null;
+                    },
+                    () -> {
+                        STREAMING.toJson(board, board.getClass(), NULL_WRITER);
+                        return null;
+                    });
+        }
+    }
+}
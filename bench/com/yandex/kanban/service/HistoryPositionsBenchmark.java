@@ -0,0 +1,58 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.BenchmarkTimer;
+import com.yandex.kanban.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+//the history position of every task as the snapshot builder needs it, from getHistoryPositions against
+//the history.indexOf per task it replaced. every task is viewed, so the whole history is searched
+//usage: HistoryPositionsBenchmark [task count...], 10k and 100k by default
+public class HistoryPositionsBenchmark {
+
+    //what managerToRecords did before
+    static int[] byIndexOf(List<Task> tasks, HistoryManager historyManager) {
+        List<Task> history = historyManager.getHistory();
+        int[] positions = new int[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            positions[i] = history.indexOf(tasks.get(i));
+        }
+        return positions;
+    }
+
+    static int[] byPositions(List<Task> tasks, HistoryManager historyManager) {
+        Map<Integer, Integer> historyPositions = historyManager.getHistoryPositions();
+        int[] positions = new int[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            positions[i] = historyPositions.getOrDefault(tasks.get(i).getId(), -1);
+        }
+        return positions;
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{10_000, 100_000}
+                : java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        for (int size : sizes) {
+            List<Task> tasks = new ArrayList<>(size);
+            HistoryManager historyManager = new InMemoryHistoryManager();
+            for (int i = 1; i <= size; i++) {
+                Task task = new Task("Task " + i, "description");
+                task.setId(i);
+                tasks.add(task);
+            }
+            //viewed in a different order than the tasks are stored in
+            for (int i = 0; i < size; i++) {
+                historyManager.add(tasks.get((int) ((i * 7919L) % size)));
+            }
+            if (!java.util.Arrays.equals(byIndexOf(tasks, historyManager), byPositions(tasks, historyManager))) {
+                throw new IllegalStateException("getHistoryPositions differs from indexOf");
+            }
+            int calls = size >= 100_000 ? 2 : 20;
+            System.out.printf("%,d viewed tasks: indexOf %.1f ms, getHistoryPositions %.1f ms%n", size,
+                    BenchmarkTimer.millisPerCall(calls, () -> byIndexOf(tasks, historyManager)),
+                    BenchmarkTimer.millisPerCall(calls, () -> byPositions(tasks, historyManager)));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.BenchmarkTimer;
+import com.yandex.kanban.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+//bulk import of scheduled tasks with the neighbour lookups in isCrossingTasks against the full scan of the
+//schedule they replaced, and a week window query against filtering the whole schedule.
+//the full scan import is quadratic, so it is run on the small sizes only
+//usage: ScheduleBenchmark
+public class ScheduleBenchmark extends InMemoryTaskManager {
+    private static final LocalDateTime START = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    //the old isCrossingTasks
+    boolean crossesByScan(Task task) {
+        return prioritizedTasks.stream().anyMatch(el -> {
+            if (el.getStartTime().isBefore(task.getStartTime())) {
+                return el.getStartTime().plus(el.getDuration()).isAfter(task.getStartTime());
+            } else if (el.getStartTime().isAfter(task.getStartTime())) {
+                return el.getStartTime().isBefore(task.getStartTime().plus(task.getDuration()));
+            } else {
+                return !task.getDuration().isZero() && !el.getDuration().isZero();
+            }
+        });
+    }
+
+    //what the old addTask did for a task: id, maps, full scan, schedule
+    void addByScan(Task task) {
+        task.setId(++id);
+        putTaskToMaps(task);
+        if (!crossesByScan(task)) {
+            prioritizedTasks.add(task);
+        }
+    }
+
+    static Task scheduledTask(int index) {
+        Task task = new Task("Task", "description");
+        task.setStartTime(START.plusMinutes(30L * index));
+        task.setDuration(Duration.ofMinutes(30));
+        return task;
+    }
+
+    static double importMillis(int size, boolean byScan) {
+        ScheduleBenchmark manager = new ScheduleBenchmark();
+        long start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            if (byScan) {
+                manager.addByScan(scheduledTask(i));
+            } else {
+                manager.addTask(scheduledTask(i));
+            }
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    public static void main(String[] args) {
+        //warm-up of both paths
+        importMillis(2_000, true);
+        importMillis(2_000, false);
+        for (int size : new int[]{10_000, 30_000}) {
+            System.out.printf("import %,d scheduled tasks: full scan %.1f ms%n", size, importMillis(size, true));
+        }
+        for (int size : new int[]{10_000, 30_000, 1_000_000}) {
+            System.out.printf("import %,d scheduled tasks: neighbours %.1f ms%n", size, importMillis(size, false));
+        }
+
+        int size = 1_000_000;
+        ScheduleBenchmark manager = new ScheduleBenchmark();
+        for (int i = 0; i < size; i++) {
+            manager.addTask(scheduledTask(i));
+        }
+        LocalDateTime from = START.plusMinutes(30L * (size / 2));
+        LocalDateTime to = from.plusDays(7);
+        double filtered = BenchmarkTimer.millisPerCall(50, () -> manager.getPrioritizedTasks().stream()
+                .filter(el -> el.getStartTime().plus(el.getDuration()).isAfter(from)
+                        && el.getStartTime().isBefore(to))
+                .toList());
+        double window = BenchmarkTimer.millisPerCall(50, () -> manager.getPrioritizedTasks(from, to, Integer.MAX_VALUE));
+        System.out.printf("week out of %,d scheduled tasks: filtered %.3f ms, window query %.3f ms%n",
+                size, filtered, window);
+    }
+}
@@ -0,0 +1,56 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.BenchmarkTimer;
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+
+import java.util.List;
+
+//getAllTasks/getAllEpics/getAllSubtasks against the instanceof filtering over tasksMap they replaced.
+//the board is 1% epics, 10% tasks and subtasks for the rest
+//usage: TaskListingBenchmark [task count...], 10k, 100k and 1M by default
+public class TaskListingBenchmark extends InMemoryTaskManager {
+
+    List<Task> filteredTasks() {
+        return tasksMap.values().stream().filter(el -> !(el instanceof Epic) && !(el instanceof Subtask)).toList();
+    }
+
+    List<Epic> filteredEpics() {
+        return tasksMap.values().stream().filter(el -> el instanceof Epic).map(el -> (Epic) el).toList();
+    }
+
+    List<Subtask> filteredSubtasks() {
+        return tasksMap.values().stream().filter(el -> el instanceof Subtask).map(el -> (Subtask) el).toList();
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{10_000, 100_000, 1_000_000}
+                : java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        for (int size : sizes) {
+            TaskListingBenchmark manager = new TaskListingBenchmark();
+            int epics = Math.max(1, size / 100);
+            int tasks = size / 10;
+            for (int i = 0; i < epics; i++) {
+                manager.createEpic("Epic", "description");
+            }
+            for (int i = 0; i < tasks; i++) {
+                manager.createTask("Task", "description");
+            }
+            for (int i = 0; i < size - epics - tasks; i++) {
+                manager.createSubtask("Subtask", "description", 1 + i % epics);
+            }
+            int calls = size >= 1_000_000 ? 10 : size >= 100_000 ? 50 : 500;
+            System.out.printf("%,d tasks, ms per call (filtered -> per-type map)%n", size);
+            System.out.printf("  getAllEpics    %8.3f -> %8.3f%n",
+                    BenchmarkTimer.millisPerCall(calls, manager::filteredEpics),
+                    BenchmarkTimer.millisPerCall(calls, manager::getAllEpics));
+            System.out.printf("  getAllTasks    %8.3f -> %8.3f%n",
+                    BenchmarkTimer.millisPerCall(calls, manager::filteredTasks),
+                    BenchmarkTimer.millisPerCall(calls, manager::getAllTasks));
+            System.out.printf("  getAllSubtasks %8.3f -> %8.3f%n",
+                    BenchmarkTimer.millisPerCall(calls, manager::filteredSubtasks),
+                    BenchmarkTimer.millisPerCall(calls, manager::getAllSubtasks));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.yandex.kanban.util;
+
+import com.yandex.kanban.BenchmarkTimer;
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+//encoding a csv snapshot and decoding it back with Converter against the String.format and split codec
+//it replaced. a third of the tasks are unscheduled, which the old codec handled by catching an exception
+//usage: ConverterBenchmark [task count], 100k by default
+public class ConverterBenchmark {
+
+    //the old Converter
+    private static class FormatConverter {
+        private static final String TASK_FORMAT = "%d;%s;%s;%s;%s;%s;%d;%d;%b"; // "id;type;title;description;status;startTime;duration;historyManagerPosition;isInPrioritizedTasks"
+        private static final String EPIC_FORMAT = "%d;%s;%s;%s;%s;%s;%d;%s;%d;%b"; // "id;type;title;description;status;startTime;duration;[sub,ids];historyManagerPosition;isInPrioritizedTasks"
+        private static final String SUBTASK_FORMAT = "%d;%s;%s;%s;%s;%s;%d;%d;%d;%b"; // "id;type;title;description;status;startTime;duration;epicID;historyManagerPosition;isInPrioritizedTasks(always false)"
+        private static final DateTimeFormatter START_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+        static String taskToString(Task task, int historyManagerPosition, boolean isInPrioritizedTasks) {
+            if (task instanceof Epic) {
+                return epicToString((Epic) task, historyManagerPosition);
+            } else if (task instanceof Subtask) {
+                return subtaskToString((Subtask) task, historyManagerPosition, isInPrioritizedTasks);
+            } else {
+                return String.format(TASK_FORMAT, task.getId(), TaskTypes.TASK, task.getTitle(), task.getDescription(),
+                        task.getStatus(), formatStartTime(task.getStartTime()), task.getDuration().toMinutes(),
+                        historyManagerPosition, isInPrioritizedTasks);
+            }
+        }
+
+        //the line is split once and gives the task together with its saved history position and priority flag
+        static TaskRecord stringToRecord(String value) {
+            String[] parts = value.split(";");
+            return new TaskRecord(partsToTask(parts), Integer.parseInt(parts[parts.length - 2]),
+                    parts[parts.length - 1].equals("true"));
+        }
+
+        private static Task partsToTask(String[] parts) {
+
+            int id = Integer.parseInt(parts[0]);
+            String type = parts[1];
+            String title = parts[2];
+            String description = parts[3];
+            TaskStatus status = TaskStatus.valueOf(parts[4]);
+            LocalDateTime startTime = formStringToDateTime(parts[5]);
+            Duration duration = Duration.ofMinutes(Long.parseLong(parts[6]));
+            return switch (type) {
+                case "TASK" -> buildTask(title, description, id, status, startTime, duration);
+                case "SUBTASK" -> buildSubtask(title, description, id, status, startTime, duration, parts[7]);
+                case "EPIC" -> buildEpic(title, description, id, status, startTime, duration, parts[7]);
+                default -> null;
+            };
+        }
+
+        private static Task buildTask(String title, String description, int id, TaskStatus status, LocalDateTime startTime,
+                                      Duration duration) {
+            Task task = new Task(title, description);
+            task.setId(id);
+            task.setStatus(status);
+            task.setStartTime(startTime);
+            task.setDuration(duration);
+            return task;
+        }
+
+        private static Task buildSubtask(String title, String description, int id, TaskStatus status,
+                                         LocalDateTime startTime, Duration duration, String epicID) {
+            Subtask subtask = new Subtask(title, description);
+            subtask.setId(id);
+            subtask.setStatus(status);
+            subtask.setStartTime(startTime);
+            subtask.setDuration(duration);
+            subtask.setEpicId(Integer.parseInt(epicID));
+            return subtask;
+        }
+
+        private static Task buildEpic(String title, String description, int id, TaskStatus status, LocalDateTime startTime,
+                                      Duration duration, String subs) {
+            Epic epic = new Epic(title, description);
+            epic.setId(id);
+            epic.setStatus(status);
+            epic.setStartTime(startTime);
+            epic.setDuration(duration);
+            List<Integer> subIds = new ArrayList<>();
+            String joinedSubIds = subs.replaceAll("\\]|\\[", "");
+            if (!joinedSubIds.isEmpty()) {
+                for (String subId : joinedSubIds.split(", ")) {
+                    subIds.add(Integer.parseInt(subId));
+                }
+            }
+            epic.setSubtasksIds(subIds);
+            return epic;
+        }
+
+        private static String subtaskToString(Subtask subtask, int historyManagerPosition, boolean isInPrioritizedTasks) {
+            return String.format(SUBTASK_FORMAT, subtask.getId(), TaskTypes.SUBTASK, subtask.getTitle(),
+                    subtask.getDescription(), subtask.getStatus(), formatStartTime(subtask.getStartTime()),
+                    subtask.getDuration().toMinutes(), subtask.getEpicId(), historyManagerPosition, isInPrioritizedTasks);
+        }
+
+        private static String epicToString(Epic epic, int historyManagerPosition) {
+            return String.format(EPIC_FORMAT, epic.getId(), TaskTypes.EPIC, epic.getTitle(), epic.getDescription(),
+                    epic.getStatus(), formatStartTime(epic.getStartTime()), epic.getDuration().toMinutes(),
+                    epic.getSubtasksIds(), historyManagerPosition, false);
+        }
+
+        private static String formatStartTime(LocalDateTime startTime) {
+            try {
+                return startTime.format(START_TIME_FORMATTER);
+            } catch (NullPointerException e) {
+                return "null";
+            }
+        }
+
+        private static LocalDateTime formStringToDateTime(String formatTime) {
+            if (formatTime.equals("null")) {
+                return null;
+            } else {
+                return LocalDateTime.parse(formatTime, START_TIME_FORMATTER);
+            }
+        }
+    }
+
+    private static List<Task> board(int size) {
+        List<Task> tasks = new ArrayList<>(size);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        TaskStatus[] statuses = TaskStatus.values();
+        int epicId = 0;
+        for (int i = 1; i <= size; i++) {
+            Task task;
+            if (i % 10 == 1) {
+                Epic epic = new Epic("Epic " + i, "description of epic " + i);
+                epic.setSubtasksIds(new ArrayList<>(List.of(i + 1, i + 2, i + 3, i + 4, i + 5)));
+                epicId = i;
+                task = epic;
+            } else if (i % 2 == 0) {
+                task = new Subtask("Subtask " + i, "description of subtask " + i, epicId);
+            } else {
+                task = new Task("Task " + i, "description of task " + i);
+            }
+            task.setId(i);
+            task.setStatus(statuses[i % statuses.length]);
+            if (i % 3 != 0) {
+                task.setStartTime(start.plusMinutes(30L * i));
+                task.setDuration(Duration.ofMinutes(30));
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    public static void main(String[] args) {
+        int size = args.length == 0 ? 100_000 : Integer.parseInt(args[0]);
+        List<Task> tasks = board(size);
+
+        //what FileBackedTaskManager did with the old codec: a string per task, joined afterwards
+        String formatted = encodeFormatted(tasks);
+        String appended = encodeAppended(tasks);
+        if (!formatted.equals(appended)) {
+            throw new IllegalStateException("Converter output differs from the old codec");
+        }
+        String[] lines = appended.split(System.lineSeparator());
+        for (String line : lines) {
+            TaskRecord split = FormatConverter.stringToRecord(line);
+            TaskRecord scanned = Converter.stringToRecord(line);
+            if (!Converter.taskToString(split.getTask(), split.getHistoryManagerPosition(), split.isInPrioritizedTasks())
+                    .equals(Converter.taskToString(scanned.getTask(), scanned.getHistoryManagerPosition(),
+                            scanned.isInPrioritizedTasks()))) {
+                throw new IllegalStateException("Converter decodes differently from the old codec: " + line);
+            }
+        }
+
+        int calls = Math.max(5, 2_000_000 / size);
+        System.out.printf("%,d tasks, ms per snapshot (old codec -> Converter)%n", size);
+        System.out.printf("  encode %8.2f -> %8.2f%n",
+                BenchmarkTimer.millisPerCall(calls, () -> encodeFormatted(tasks)),
+                BenchmarkTimer.millisPerCall(calls, () -> encodeAppended(tasks)));
+        System.out.printf("  decode %8.2f -> %8.2f%n",
+                BenchmarkTimer.millisPerCall(calls, () -> decode(lines, true)),
+                BenchmarkTimer.millisPerCall(calls, () -> decode(lines, false)));
+    }
+
+    private static String encodeFormatted(List<Task> tasks) {
+        List<String> lines = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            lines.add(FormatConverter.taskToString(task, task.getId() % 7 - 1, task.getStartTime() != null));
+        }
+        StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            builder.append(line).append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+
+    private static String encodeAppended(List<Task> tasks) {
+        StringBuilder builder = new StringBuilder(tasks.size() * 64);
+        for (Task task : tasks) {
+            Converter.appendTask(builder, task, task.getId() % 7 - 1, task.getStartTime() != null)
+                    .append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+
+    private static List<TaskRecord> decode(String[] lines, boolean isFormatted) {
+        List<TaskRecord> records = new ArrayList<>(lines.length);
+        for (String line : lines) {
+            records.add(isFormatted ? FormatConverter.stringToRecord(line) : Converter.stringToRecord(line));
+        }
+        return records;
+    }
+}
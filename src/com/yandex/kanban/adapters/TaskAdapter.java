@@ -0,0 +1,145 @@
+package com.yandex.kanban.adapters;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskAdapter extends TypeAdapter<Task> {
+    private final DurationAdapter durationAdapter = new DurationAdapter();
+    private final LocalDateTimeAdapter localDateTimeAdapter = new LocalDateTimeAdapter();
+
+    //field order is the one reflective serialization used: subclass fields first, then Task fields
+    @Override
+    public void write(final JsonWriter jsonWriter, final Task task) throws IOException {
+        if (task == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginObject();
+        if (task instanceof Epic) {
+            writeSubtasksIds(jsonWriter, ((Epic) task).getSubtasksIds());
+        } else if (task instanceof Subtask) {
+            jsonWriter.name("epicId").value(((Subtask) task).getEpicId());
+        }
+        jsonWriter.name("type").value(task.getType().name());
+        jsonWriter.name("title").value(task.getTitle());
+        jsonWriter.name("description").value(task.getDescription());
+        jsonWriter.name("id").value(task.getId());
+        jsonWriter.name("status").value(task.getStatus() == null ? null : task.getStatus().name());
+        jsonWriter.name("startTime");
+        localDateTimeAdapter.write(jsonWriter, task.getStartTime());
+        jsonWriter.name("duration");
+        durationAdapter.write(jsonWriter, task.getDuration());
+        jsonWriter.endObject();
+    }
+
+    //"type" may come after the fields of a subclass, so all fields are collected before the task is built
+    @Override
+    public Task read(final JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        String type = null;
+        String title = null;
+        String description = null;
+        Integer id = null;
+        TaskStatus status = null;
+        LocalDateTime startTime = null;
+        Duration duration = null;
+        Integer epicId = null;
+        List<Integer> subtasksIds = null;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "type" -> type = jsonReader.nextString();
+                case "title" -> title = jsonReader.nextString();
+                case "description" -> description = jsonReader.nextString();
+                case "id" -> id = jsonReader.nextInt();
+                case "status" -> status = readStatus(jsonReader.nextString());
+                case "startTime" -> startTime = localDateTimeAdapter.read(jsonReader);
+                case "duration" -> duration = durationAdapter.read(jsonReader);
+                case "epicId" -> epicId = jsonReader.nextInt();
+                case "subtasksIds" -> subtasksIds = readSubtasksIds(jsonReader);
+                default -> jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        if (type == null) {
+            throw new JsonParseException("task type is missing");
+        }
+        Task task = switch (type) {
+            case "TASK" -> new Task(title, description);
+            case "EPIC" -> new Epic(title, description);
+            case "SUBTASK" -> new Subtask(title, description);
+            default -> throw new JsonParseException("unknown task type " + type);
+        };
+        if (id != null) {
+            task.setId(id);
+        }
+        if (status != null) {
+            task.setStatus(status);
+        }
+        if (duration != null) {
+            task.setDuration(duration);
+        }
+        task.setStartTime(startTime);
+        if (task instanceof Subtask && epicId != null) {
+            ((Subtask) task).setEpicId(epicId);
+        }
+        if (task instanceof Epic && subtasksIds != null) {
+            ((Epic) task).setSubtasksIds(subtasksIds);
+        }
+        return task;
+    }
+
+    private void writeSubtasksIds(JsonWriter jsonWriter, List<Integer> subtasksIds) throws IOException {
+        jsonWriter.name("subtasksIds");
+        if (subtasksIds == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginArray();
+        for (Integer subId : subtasksIds) {
+            jsonWriter.value(subId);
+        }
+        jsonWriter.endArray();
+    }
+
+    private List<Integer> readSubtasksIds(JsonReader jsonReader) throws IOException {
+        List<Integer> subtasksIds = new ArrayList<>();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            subtasksIds.add(jsonReader.nextInt());
+        }
+        jsonReader.endArray();
+        return subtasksIds;
+    }
+
+    private TaskStatus readStatus(String value) {
+        try {
+            return TaskStatus.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("unknown task status " + value, e);
+        }
+    }
+}
@@ -1,20 +1,30 @@
 package com.yandex.kanban.handlers;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.yandex.kanban.exceptions.IntersectionException;
 import com.yandex.kanban.model.Epic;
 import com.yandex.kanban.model.Subtask;
 import com.yandex.kanban.model.Task;
+import com.yandex.kanban.service.SessionHistories;
 import com.yandex.kanban.service.TaskManager;
 import com.yandex.kanban.util.GsonHolder;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public abstract class BaseHttpHandler implements HttpHandler {
+    private static final Logger LOGGER = Logger.getLogger(BaseHttpHandler.class.getName());
     private static final String HAS_INTERACTIONS = "INPUT TASK HAS INTERACTIONS";
     private static final String ADDED_SUCCESSFULLY = "TASK ADDED SUCCESSFULLY";
     private static final String UPDATED_SUCCESSFULLY = "TASK UPDATED SUCCESSFULLY";
@@ -23,22 +33,82 @@ public abstract class BaseHttpHandler implements HttpHandler {
     protected static final String WRONG_TYPE = "WRONG TYPE";
     protected static final String WRONG_ID_FORMAT = "WRONG ID FORMAT";
     protected static final String WRONG_JSON_SYNTAX = "WRONG JSON SYNTAX";
+    protected static final String WRONG_QUERY = "WRONG QUERY PARAMETERS";
     protected static final String UNKNOWN_ERROR = "UNKNOWN ERROR";
     protected static final String GET = "GET";
     protected static final String POST = "POST";
     protected static final String DELETE = "DELETE";
     protected static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    protected static final String CLIENT_ID_HEADER = "X-Client-Id";
     protected TaskManager manager;
     protected final Gson gson = GsonHolder.getGson();
+    private boolean compactJson;
+    protected SessionHistories sessionHistories;
 
     public BaseHttpHandler(TaskManager manager) {
         this.manager = manager;
     }
 
-    protected void sendText(HttpExchange exchange, String response) throws IOException {
-        byte[] responseBytes = response.getBytes(DEFAULT_CHARSET);
-        exchange.sendResponseHeaders(200, responseBytes.length);
-        exchange.getResponseBody().write(responseBytes);
+    public void setCompactJson(boolean compactJson) {
+        this.compactJson = compactJson;
+    }
+
+    public void setSessionHistories(SessionHistories sessionHistories) {
+        this.sessionHistories = sessionHistories;
+    }
+
+    //"a=1&b=2" -> {a=1, b=2}, an empty map if there is no query
+    protected Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String param : query.split("&")) {
+            int separator = param.indexOf('=');
+            String name = separator < 0 ? param : param.substring(0, separator);
+            String value = separator < 0 ? "" : param.substring(separator + 1);
+            params.put(URLDecoder.decode(name, DEFAULT_CHARSET), URLDecoder.decode(value, DEFAULT_CHARSET));
+        }
+        return params;
+    }
+
+    //null if the request has no client id or sessions are not set up
+    protected String getClientId(HttpExchange exchange) {
+        if (sessionHistories == null) {
+            return null;
+        }
+        return exchange.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
+    }
+
+    protected void recordView(HttpExchange exchange, Task task) {
+        String clientId = getClientId(exchange);
+        if (clientId != null) {
+            sessionHistories.add(clientId, task.getId());
+        }
+    }
+
+    //serializes straight into the chunked response body, so the payload never exists as a String or byte[].
+    //the 200 headers are sent before serialization starts, so a failure found mid-stream can't be turned into
+    //a 4xx or 5xx response: it is logged and the exchange is closed with the body cut off, which the client sees
+    //as a truncated chunked response. the caller must not send anything else
+    protected void sendJson(HttpExchange exchange, Object value) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, 0);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), DEFAULT_CHARSET));
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        if (compactJson) {
+            jsonWriter.setIndent("");
+        }
+        try {
+            gson.toJson(value, value.getClass(), jsonWriter);
+            jsonWriter.flush();
+        } catch (RuntimeException | IOException e) {
+            LOGGER.log(Level.WARNING, "JSON response to " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI() + " failed after the status was sent, the body is cut off", e);
+            exchange.close();
+        }
     }
 
     protected void sendNotFound(HttpExchange exchange) throws IOException {
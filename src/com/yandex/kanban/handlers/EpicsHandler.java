@@ -9,9 +9,12 @@ import com.yandex.kanban.service.TaskManager;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
-import java.util.regex.Pattern;
 
 public class EpicsHandler extends BaseHttpHandler {
+    private static final Route EPICS = new Route("/epics");
+    private static final Route EPIC_BY_ID = new Route("/epics/{id}");
+    private static final Route EPIC_SUBTASKS = new Route("/epics/{id}/subtasks");
+
     public EpicsHandler(TaskManager manager) {
         super(manager);
     }
@@ -21,12 +24,14 @@ public class EpicsHandler extends BaseHttpHandler {
         try (exchange) {
             String path = exchange.getRequestURI().getPath();
             String requestMethod = exchange.getRequestMethod();
-            if (Pattern.matches("^/epics$", path)) {
+            int id = EPIC_BY_ID.match(path);
+            int epicSubtasksId = EPIC_SUBTASKS.match(path);
+            if (EPICS.matches(path)) {
                 handlePath1(exchange, requestMethod);
-            } else if (Pattern.matches("^/epics/[1-9]\\d*$", path)) {
-                handlePath2(exchange, requestMethod, path);
-            } else if (Pattern.matches("^/epics/[1-9]\\d*/subtasks$", path)) {
-                handlePath3(exchange, requestMethod, path);
+            } else if (id != Route.NOT_MATCHED) {
+                handlePath2(exchange, requestMethod, id);
+            } else if (epicSubtasksId != Route.NOT_MATCHED) {
+                handlePath3(exchange, requestMethod, epicSubtasksId);
             } else {
                 sendBadRequest(exchange, WRONG_PATH);
             }
@@ -39,8 +44,7 @@ public class EpicsHandler extends BaseHttpHandler {
         switch (requestMethod) {
             case GET -> {
                 List<Epic> epics = manager.getAllEpics();
-                String response = gson.toJson(epics);
-                sendText(exchange, response);
+                sendJson(exchange, epics);
             }
             case POST -> {
                 InputStream requestBody = exchange.getRequestBody();
@@ -63,12 +67,8 @@ public class EpicsHandler extends BaseHttpHandler {
         }
     }
 
-    private void handlePath2(HttpExchange exchange, String requestMethod, String path) throws IOException {
-        int id = 0;
-
-        try {
-            id = Integer.parseInt(path.split("/")[2]);
-        } catch (NumberFormatException e) {
+    private void handlePath2(HttpExchange exchange, String requestMethod, int id) throws IOException {
+        if (id == Route.WRONG_ID) {
             sendBadRequest(exchange, WRONG_ID_FORMAT);
             return;
         }
@@ -81,8 +81,8 @@ public class EpicsHandler extends BaseHttpHandler {
 
         switch (requestMethod) {
             case GET -> {
-                String response = gson.toJson(task);
-                sendText(exchange, response);
+                recordView(exchange, task);
+                sendJson(exchange, task);
             }
             case DELETE -> {
                 manager.removeTaskById(id);
@@ -92,19 +92,15 @@ public class EpicsHandler extends BaseHttpHandler {
         }
     }
 
-    private void handlePath3(HttpExchange exchange, String requestMethod, String path) throws IOException {
+    private void handlePath3(HttpExchange exchange, String requestMethod, int id) throws IOException {
         if (requestMethod.equals(GET)) {
-            int id = 0;
-            try {
-                id = Integer.parseInt(path.split("/")[2]);
-            } catch (NumberFormatException e) {
+            if (id == Route.WRONG_ID) {
                 sendBadRequest(exchange, WRONG_ID_FORMAT);
                 return;
             }
             try {
                 List<Subtask> subtasks = manager.getAllSubtasksByEpicId(id);
-                String response = gson.toJson(subtasks);
-                sendText(exchange, response);
+                sendJson(exchange, subtasks);
             } catch (Exception e) {
                 sendBadRequest(exchange, UNKNOWN_ERROR);
             }
@@ -6,9 +6,10 @@ import com.yandex.kanban.service.TaskManager;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.regex.Pattern;
 
 public class HistoryHandler extends BaseHttpHandler {
+    private static final Route HISTORY = new Route("/history");
+
     public HistoryHandler(TaskManager manager) {
         super(manager);
     }
@@ -18,11 +19,12 @@ public class HistoryHandler extends BaseHttpHandler {
         try (exchange) {
             String path = exchange.getRequestURI().getPath();
             String requestMethod = exchange.getRequestMethod();
-            if (Pattern.matches("^/history$", path)) {
+            if (HISTORY.matches(path)) {
                 if (requestMethod.equals(GET)) {
-                    List<Task> history = manager.getHistoryManager().getHistory();
-                    String response = gson.toJson(history);
-                    sendText(exchange, response);
+                    String clientId = getClientId(exchange);
+                    List<Task> history = clientId == null ? manager.getHistory()
+                            : sessionHistories.getHistory(clientId, manager::findTaskById);
+                    sendJson(exchange, history);
                 } else {
                     sendMethodNotAllowed(exchange);
                 }
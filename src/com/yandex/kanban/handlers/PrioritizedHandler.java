@@ -5,10 +5,20 @@ import com.yandex.kanban.model.Task;
 import com.yandex.kanban.service.TaskManager;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 public class PrioritizedHandler extends BaseHttpHandler {
+    private static final Route PRIORITIZED = new Route("/prioritized");
+    private static final Route FREE_SLOT = new Route("/prioritized/free");
+    private static final String FROM = "from";
+    private static final String TO = "to";
+    private static final String LIMIT = "limit";
+    private static final String DURATION = "duration";
 
     public PrioritizedHandler(TaskManager manager) {
         super(manager);
@@ -19,11 +29,21 @@ public class PrioritizedHandler extends BaseHttpHandler {
         try (exchange) {
             String path = exchange.getRequestURI().getPath();
             String requestMethod = exchange.getRequestMethod();
-            if (Pattern.matches("^/prioritized$", path)) {
+            if (PRIORITIZED.matches(path)) {
                 if (requestMethod.equals(GET)) {
-                    Set<Task> prioritizedTasks = manager.getPrioritizedTasks();
-                    String response = gson.toJson(prioritizedTasks);
-                    sendText(exchange, response);
+                    Map<String, String> params = parseQuery(exchange);
+                    if (params.isEmpty()) {
+                        Set<Task> prioritizedTasks = manager.getPrioritizedTasks();
+                        sendJson(exchange, prioritizedTasks);
+                    } else {
+                        sendWindow(exchange, params);
+                    }
+                } else {
+                    sendMethodNotAllowed(exchange);
+                }
+            } else if (FREE_SLOT.matches(path)) {
+                if (requestMethod.equals(GET)) {
+                    sendFreeSlot(exchange, parseQuery(exchange));
                 } else {
                     sendMethodNotAllowed(exchange);
                 }
@@ -34,4 +54,52 @@ public class PrioritizedHandler extends BaseHttpHandler {
             sendBadRequest(exchange, UNKNOWN_ERROR);
         }
     }
+
+    // "?from=2024-01-01T00:00&to=2024-01-08T00:00&limit=100", every parameter is optional
+    private void sendWindow(HttpExchange exchange, Map<String, String> params) throws IOException {
+        List<Task> window;
+        try {
+            LocalDateTime from = parseDateTime(params.get(FROM));
+            LocalDateTime to = parseDateTime(params.get(TO));
+            int limit = params.containsKey(LIMIT) ? Integer.parseInt(params.get(LIMIT)) : Integer.MAX_VALUE;
+            window = manager.getPrioritizedTasks(from, to, limit);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            sendBadRequest(exchange, WRONG_QUERY);
+            return;
+        }
+        sendJson(exchange, window);
+    }
+
+    private LocalDateTime parseDateTime(String value) {
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+
+    // "?from=2024-01-01T09:00&duration=PT30M"
+    private void sendFreeSlot(HttpExchange exchange, Map<String, String> params) throws IOException {
+        if (!params.containsKey(FROM) || !params.containsKey(DURATION)) {
+            sendBadRequest(exchange, WRONG_QUERY);
+            return;
+        }
+        FreeSlot freeSlot;
+        try {
+            LocalDateTime from = parseDateTime(params.get(FROM));
+            Duration duration = Duration.parse(params.get(DURATION));
+            LocalDateTime startTime = manager.findFreeSlot(from, duration);
+            freeSlot = new FreeSlot(startTime, startTime.plus(duration));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            sendBadRequest(exchange, WRONG_QUERY);
+            return;
+        }
+        sendJson(exchange, freeSlot);
+    }
+
+    private static class FreeSlot {
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        private FreeSlot(LocalDateTime startTime, LocalDateTime endTime) {
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
 }
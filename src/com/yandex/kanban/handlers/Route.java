@@ -0,0 +1,49 @@
+package com.yandex.kanban.handlers;
+
+public class Route {
+    public static final int NOT_MATCHED = -1;
+    public static final int WRONG_ID = -2;
+    private static final String ID_PARAM = "{id}";
+    private final String prefix;
+    private final String suffix;
+    private final boolean hasId;
+
+    public Route(String template) {
+        int paramIndex = template.indexOf(ID_PARAM);
+        this.hasId = paramIndex >= 0;
+        if (hasId) {
+            this.prefix = template.substring(0, paramIndex);
+            this.suffix = template.substring(paramIndex + ID_PARAM.length());
+        } else {
+            this.prefix = template;
+            this.suffix = "";
+        }
+    }
+
+    public boolean matches(String path) {
+        return match(path) != NOT_MATCHED;
+    }
+
+    //returns the id for "{id}" routes (0 for routes without it), NOT_MATCHED, or WRONG_ID if the id overflows int
+    public int match(String path) {
+        if (!hasId) {
+            return path.equals(prefix) ? 0 : NOT_MATCHED;
+        }
+        int start = prefix.length();
+        int end = path.length() - suffix.length();
+        if (end <= start || !path.startsWith(prefix) || !path.endsWith(suffix) || path.charAt(start) == '0') {
+            return NOT_MATCHED;
+        }
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_MATCHED;
+            }
+            if (id <= Integer.MAX_VALUE) {
+                id = id * 10 + (c - '0');
+            }
+        }
+        return id > Integer.MAX_VALUE ? WRONG_ID : (int) id;
+    }
+}
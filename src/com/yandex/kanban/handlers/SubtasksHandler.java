@@ -9,9 +9,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
 import java.util.List;
-import java.util.regex.Pattern;
 
 public class SubtasksHandler extends BaseHttpHandler {
+    private static final Route SUBTASKS = new Route("/subtasks");
+    private static final Route SUBTASK_BY_ID = new Route("/subtasks/{id}");
+
     public SubtasksHandler(TaskManager manager) {
         super(manager);
     }
@@ -21,10 +23,11 @@ public class SubtasksHandler extends BaseHttpHandler {
         try (exchange) {
             String path = exchange.getRequestURI().getPath();
             String requestMethod = exchange.getRequestMethod();
-            if (Pattern.matches("^/subtasks$", path)) {
+            int id = SUBTASK_BY_ID.match(path);
+            if (SUBTASKS.matches(path)) {
                 handlePath1(exchange, requestMethod);
-            } else if (Pattern.matches("^/subtasks/[1-9]\\d*$", path)) {
-                handlePath2(exchange, requestMethod, path);
+            } else if (id != Route.NOT_MATCHED) {
+                handlePath2(exchange, requestMethod, id);
             } else {
                 sendBadRequest(exchange, WRONG_PATH);
             }
@@ -37,8 +40,7 @@ public class SubtasksHandler extends BaseHttpHandler {
         switch (requestMethod) {
             case GET -> {
                 List<Subtask> subs = manager.getAllSubtasks();
-                String response = gson.toJson(subs);
-                sendText(exchange, response);
+                sendJson(exchange, subs);
             }
             case POST -> {
                 InputStream requestBody = exchange.getRequestBody();
@@ -78,12 +80,8 @@ public class SubtasksHandler extends BaseHttpHandler {
         }
     }
 
-    private void handlePath2(HttpExchange exchange, String requestMethod, String path) throws IOException {
-        int id = 0;
-
-        try {
-            id = Integer.parseInt(path.split("/")[2]);
-        } catch (NumberFormatException e) {
+    private void handlePath2(HttpExchange exchange, String requestMethod, int id) throws IOException {
+        if (id == Route.WRONG_ID) {
             sendBadRequest(exchange, WRONG_ID_FORMAT);
             return;
         }
@@ -95,8 +93,8 @@ public class SubtasksHandler extends BaseHttpHandler {
         }
         switch (requestMethod) {
             case GET -> {
-                String response = gson.toJson(task);
-                sendText(exchange, response);
+                recordView(exchange, task);
+                sendJson(exchange, task);
             }
             case DELETE -> {
                 manager.removeTaskById(id);
@@ -10,9 +10,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
 import java.util.List;
-import java.util.regex.Pattern;
 
 public class TasksHandler extends BaseHttpHandler {
+    private static final Route TASKS = new Route("/tasks");
+    private static final Route TASK_BY_ID = new Route("/tasks/{id}");
 
     public TasksHandler(TaskManager manager) {
         super(manager);
@@ -23,10 +24,11 @@ public class TasksHandler extends BaseHttpHandler {
         try (exchange) {
             String path = exchange.getRequestURI().getPath();
             String requestMethod = exchange.getRequestMethod();
-            if (Pattern.matches("^/tasks$", path)) {
+            int id = TASK_BY_ID.match(path);
+            if (TASKS.matches(path)) {
                 handlePath1(exchange, requestMethod, path);
-            } else if (Pattern.matches("^/tasks/[1-9]\\d*$", path)) {
-                handlePath2(exchange, requestMethod, path);
+            } else if (id != Route.NOT_MATCHED) {
+                handlePath2(exchange, requestMethod, id);
             } else {
                 sendBadRequest(exchange, WRONG_PATH);
             }
@@ -39,8 +41,7 @@ public class TasksHandler extends BaseHttpHandler {
         switch (requestMethod) {
             case GET -> {
                 List<Task> tasks = manager.getAllTasks();
-                String response = gson.toJson(tasks);
-                sendText(exchange, response);
+                sendJson(exchange, tasks);
             }
             case POST -> {
                 InputStream requestBody = exchange.getRequestBody();
@@ -78,12 +79,8 @@ public class TasksHandler extends BaseHttpHandler {
         }
     }
 
-    private void handlePath2(HttpExchange exchange, String requestMethod, String path) throws IOException {
-        int id = 0;
-
-        try {
-            id = Integer.parseInt(path.split("/")[2]);
-        } catch (NumberFormatException e) {
+    private void handlePath2(HttpExchange exchange, String requestMethod, int id) throws IOException {
+        if (id == Route.WRONG_ID) {
             sendBadRequest(exchange, WRONG_ID_FORMAT);
             return;
         }
@@ -95,8 +92,8 @@ public class TasksHandler extends BaseHttpHandler {
         }
         switch (requestMethod) {
             case GET -> {
-                String response = gson.toJson(task);
-                sendText(exchange, response);
+                recordView(exchange, task);
+                sendJson(exchange, task);
             }
             case DELETE -> {
                 manager.removeTaskById(id);
@@ -0,0 +1,7 @@
+package com.yandex.kanban.server;
+
+public enum ExecutorType {
+    DISPATCHER,
+    FIXED_POOL,
+    VIRTUAL_THREADS
+}
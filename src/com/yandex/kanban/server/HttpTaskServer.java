@@ -2,37 +2,90 @@ package com.yandex.kanban.server;
 
 import com.sun.net.httpserver.HttpServer;
 import com.yandex.kanban.handlers.*;
+import com.yandex.kanban.service.ConcurrentTaskManager;
+import com.yandex.kanban.service.HistoryManager;
 import com.yandex.kanban.service.Managers;
+import com.yandex.kanban.service.SessionHistories;
 import com.yandex.kanban.service.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
-    private static final int PORT = 8080;
-    private static final String LOCALHOST = "localhost";
-    private final InetSocketAddress socketAddress = new InetSocketAddress(LOCALHOST, PORT);
-    private final InetSocketAddress unresolvedAddress = InetSocketAddress.createUnresolved(LOCALHOST, PORT);
     private final TaskManager manager;
-    private HttpServer server = HttpServer.create(socketAddress, 0);
+    private final ExecutorService executor;
+    private final SessionHistories sessionHistories;
+    private HttpServer server;
 
     public HttpTaskServer() throws IOException {
-        this.manager = Managers.getDefault();
-        createContexts();
+        this(new ServerOptions());
     }
 
     public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, new ServerOptions());
+    }
+
+    public HttpTaskServer(ServerOptions options) throws IOException {
+        this(createManager(options), options);
+    }
+
+    //with a pool or virtual threads requests run in parallel, so the manager must be a concurrent one.
+    //it is checked before the socket is bound, a rejected server doesn't hold the port
+    public HttpTaskServer(TaskManager manager, ServerOptions options) throws IOException {
+        if (options.getExecutorType() != ExecutorType.DISPATCHER && !(manager instanceof ConcurrentTaskManager)) {
+            throw new IllegalArgumentException(options.getExecutorType()
+                    + " executor handles requests in parallel and needs a ConcurrentTaskManager");
+        }
         this.manager = manager;
-        createContexts();
+        InetSocketAddress socketAddress = new InetSocketAddress(options.getHost(), options.getPort());
+        this.server = HttpServer.create(socketAddress, options.getBacklog());
+        this.executor = createExecutor(options);
+        this.sessionHistories = new SessionHistories(options.getSessionHistoryCapacity(),
+                options.getSessionIdleTimeout(), options.getMaxSessions());
+        createContexts(options);
+    }
+
+    //the plain in-memory manager is only safe while requests are handled on the dispatcher thread. a long running
+    //server keeps every task ever viewed unless the options bound its history
+    private static TaskManager createManager(ServerOptions options) {
+        boolean isDispatcher = options.getExecutorType() == ExecutorType.DISPATCHER;
+        if (options.getHistoryCapacity() == ServerOptions.UNBOUNDED_HISTORY) {
+            return isDispatcher ? Managers.getDefault() : Managers.getConcurrent();
+        }
+        HistoryManager history = Managers.getDefaultHistory(options.getHistoryCapacity(),
+                options.getHistoryEvictionPolicy());
+        return isDispatcher ? Managers.getDefault(history) : Managers.getConcurrent(history);
+    }
+
+    private void createContexts(ServerOptions options) {
+        createContext("/tasks", new TasksHandler(this.manager), options);
+        createContext("/subtasks", new SubtasksHandler(this.manager), options);
+        createContext("/epics", new EpicsHandler(this.manager), options);
+        createContext("/history", new HistoryHandler(this.manager), options);
+        createContext("/prioritized", new PrioritizedHandler(this.manager), options);
+        server.setExecutor(executor);
+    }
+
+    private void createContext(String path, BaseHttpHandler handler, ServerOptions options) {
+        handler.setCompactJson(options.isCompactJson());
+        handler.setSessionHistories(sessionHistories);
+        server.createContext(path, handler);
     }
 
-    private void createContexts() {
-        server.createContext("/tasks", new TasksHandler(this.manager));
-        server.createContext("/subtasks", new SubtasksHandler(this.manager));
-        server.createContext("/epics", new EpicsHandler(this.manager));
-        server.createContext("/history", new HistoryHandler(this.manager));
-        server.createContext("/prioritized", new PrioritizedHandler(this.manager));
-        server.setExecutor(null);
+    private ExecutorService createExecutor(ServerOptions options) {
+        return switch (options.getExecutorType()) {
+            case DISPATCHER -> null;
+            //a full queue makes the dispatcher thread run the request itself, which slows down accepting
+            case FIXED_POOL -> new ThreadPoolExecutor(options.getPoolSize(), options.getPoolSize(),
+                    0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(options.getQueueCapacity()),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+        };
     }
 
     public void start() {
@@ -42,6 +95,9 @@ public class HttpTaskServer {
     public void stop() {
         this.server.stop(0);
         this.server = null;
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
 
     public static void main(String[] args) throws IOException {
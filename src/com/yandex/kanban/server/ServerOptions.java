@@ -0,0 +1,140 @@
+package com.yandex.kanban.server;
+
+import com.yandex.kanban.service.EvictionPolicy;
+
+import java.time.Duration;
+
+public class ServerOptions {
+    public static final int UNBOUNDED_HISTORY = 0;
+    private String host = "localhost";
+    private int port = 8080;
+    private int backlog = 0;
+    private ExecutorType executorType = ExecutorType.DISPATCHER;
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 1024;
+    private boolean compactJson = false;
+    private int sessionHistoryCapacity = 50;
+    private Duration sessionIdleTimeout = Duration.ofMinutes(30);
+    private int maxSessions = 50_000;
+    private int historyCapacity = UNBOUNDED_HISTORY;
+    private EvictionPolicy historyEvictionPolicy = EvictionPolicy.LEAST_RECENTLY_VIEWED;
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
+    public void setExecutorType(ExecutorType executorType) {
+        this.executorType = executorType;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("pool size must be positive");
+        }
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queue capacity must be positive");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isCompactJson() {
+        return compactJson;
+    }
+
+    public void setCompactJson(boolean compactJson) {
+        this.compactJson = compactJson;
+    }
+
+    public int getSessionHistoryCapacity() {
+        return sessionHistoryCapacity;
+    }
+
+    public void setSessionHistoryCapacity(int sessionHistoryCapacity) {
+        if (sessionHistoryCapacity < 1) {
+            throw new IllegalArgumentException("session history capacity must be positive");
+        }
+        this.sessionHistoryCapacity = sessionHistoryCapacity;
+    }
+
+    public Duration getSessionIdleTimeout() {
+        return sessionIdleTimeout;
+    }
+
+    public void setSessionIdleTimeout(Duration sessionIdleTimeout) {
+        if (sessionIdleTimeout.isNegative() || sessionIdleTimeout.isZero()) {
+            throw new IllegalArgumentException("session idle timeout must be positive");
+        }
+        this.sessionIdleTimeout = sessionIdleTimeout;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("session count must be positive");
+        }
+        this.maxSessions = maxSessions;
+    }
+
+    //capacity of the manager history when the server creates the manager itself. the history is unbounded
+    //unless a capacity is set
+    public int getHistoryCapacity() {
+        return historyCapacity;
+    }
+
+    public void setHistoryCapacity(int historyCapacity) {
+        if (historyCapacity < 1) {
+            throw new IllegalArgumentException("history capacity must be positive");
+        }
+        this.historyCapacity = historyCapacity;
+    }
+
+    public EvictionPolicy getHistoryEvictionPolicy() {
+        return historyEvictionPolicy;
+    }
+
+    public void setHistoryEvictionPolicy(EvictionPolicy historyEvictionPolicy) {
+        if (historyEvictionPolicy == EvictionPolicy.TIME_WINDOW) {
+            throw new IllegalArgumentException("time window history needs a window, pass its manager to the server");
+        }
+        this.historyEvictionPolicy = historyEvictionPolicy;
+    }
+}
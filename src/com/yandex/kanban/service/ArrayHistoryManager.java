@@ -0,0 +1,140 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.util.IntIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//the history list lives in parallel arrays indexed by slot, prev/next are slot numbers and -1 ends the list.
+//ids are mapped to slots by a primitive map, a repeated view relinks the same slot and freed slots are reused,
+//so views do not allocate once the arrays have grown to the size of the history
+public class ArrayHistoryManager implements HistoryManager {
+    private static final int NONE = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+    private final IntIntMap slots;
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    //freed slots are chained through next
+    private int free = NONE;
+    private int used;
+
+    public ArrayHistoryManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ArrayHistoryManager(int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("history capacity must be positive");
+        }
+        slots = new IntIntMap(initialCapacity, NONE);
+        tasks = new Task[initialCapacity];
+        prev = new int[initialCapacity];
+        next = new int[initialCapacity];
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        int slot = slots.get(task.getId());
+        if (slot == NONE) {
+            slot = allocate();
+            slots.put(task.getId(), slot);
+        } else if (slot == tail) {
+            tasks[slot] = task;
+            return;
+        } else {
+            unlink(slot);
+        }
+        tasks[slot] = task;
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = slots.remove(id);
+        if (slot == NONE) {
+            return;
+        }
+        unlink(slot);
+        tasks[slot] = null;
+        next[slot] = free;
+        free = slot;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(tasks, 0, used, null);
+        slots.clear();
+        head = NONE;
+        tail = NONE;
+        free = NONE;
+        used = 0;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(slots.size());
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            history.add(tasks[slot]);
+        }
+        return history;
+    }
+
+    @Override
+    public Map<Integer, Integer> getHistoryPositions() {
+        Map<Integer, Integer> positions = new HashMap<>(slots.size() * 4 / 3 + 1);
+        int position = 0;
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            positions.put(tasks[slot].getId(), position++);
+        }
+        return positions;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private int allocate() {
+        if (free != NONE) {
+            int slot = free;
+            free = next[slot];
+            return slot;
+        }
+        if (used == tasks.length) {
+            int capacity = tasks.length * 2;
+            tasks = Arrays.copyOf(tasks, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return used++;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] == NONE) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NONE) {
+            tail = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+    }
+}
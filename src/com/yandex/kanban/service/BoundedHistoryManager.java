@@ -0,0 +1,142 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.util.HistoryStorage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+//keeps at most capacity tasks in view order. when a new task does not fit, the least recently viewed one
+//or the least frequently viewed one (the least recently viewed of them on a tie) is evicted. with a time window
+//tasks not viewed within it are dropped as well
+public class BoundedHistoryManager implements HistoryManager {
+    private final HistoryStorage<Task> historyStorage = new HistoryStorage<>();
+    private final int capacity;
+    private final EvictionPolicy evictionPolicy;
+    private final Duration window;
+    private final Clock clock;
+    private final Map<Integer, ViewCount> viewCounts = new HashMap<>();
+    private final NavigableSet<ViewCount> byFrequency = new TreeSet<>(Comparator
+            .comparingLong((ViewCount el) -> el.count)
+            .thenComparingLong(el -> el.lastView));
+    private final Map<Integer, Long> lastViewTimes = new HashMap<>();
+    private long viewSequence;
+
+    public BoundedHistoryManager(int capacity, EvictionPolicy evictionPolicy) {
+        this(capacity, evictionPolicy, null, Clock.systemUTC());
+    }
+
+    public BoundedHistoryManager(int capacity, Duration window) {
+        this(capacity, EvictionPolicy.TIME_WINDOW, window, Clock.systemUTC());
+    }
+
+    public BoundedHistoryManager(int capacity, EvictionPolicy evictionPolicy, Duration window, Clock clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("history capacity must be positive");
+        }
+        if (evictionPolicy == EvictionPolicy.TIME_WINDOW && (window == null || window.isNegative()
+                || window.isZero())) {
+            throw new IllegalArgumentException("time window must be positive");
+        }
+        this.capacity = capacity;
+        this.evictionPolicy = evictionPolicy;
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        int id = task.getId();
+        if (evictionPolicy == EvictionPolicy.TIME_WINDOW) {
+            expire();
+            lastViewTimes.put(id, clock.millis());
+        }
+        if (!historyStorage.contains(id) && historyStorage.size() >= capacity) {
+            remove(victimId());
+        }
+        if (evictionPolicy == EvictionPolicy.LEAST_FREQUENTLY_VIEWED) {
+            ViewCount viewCount = viewCounts.remove(id);
+            if (viewCount == null) {
+                viewCount = new ViewCount();
+            } else {
+                byFrequency.remove(viewCount);
+            }
+            viewCount.count++;
+            viewCount.lastView = ++viewSequence;
+            viewCount.id = id;
+            viewCounts.put(id, viewCount);
+            byFrequency.add(viewCount);
+        }
+        historyStorage.linkLast(task);
+    }
+
+    @Override
+    public void remove(int id) {
+        historyStorage.remove(id);
+        ViewCount viewCount = viewCounts.remove(id);
+        if (viewCount != null) {
+            byFrequency.remove(viewCount);
+        }
+        lastViewTimes.remove(id);
+    }
+
+    @Override
+    public void clear() {
+        historyStorage.clear();
+        viewCounts.clear();
+        byFrequency.clear();
+        lastViewTimes.clear();
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        if (evictionPolicy == EvictionPolicy.TIME_WINDOW) {
+            expire();
+        }
+        return historyStorage.getTasks();
+    }
+
+    @Override
+    public Map<Integer, Integer> getHistoryPositions() {
+        if (evictionPolicy == EvictionPolicy.TIME_WINDOW) {
+            expire();
+        }
+        return historyStorage.getPositions();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private int victimId() {
+        if (evictionPolicy == EvictionPolicy.LEAST_FREQUENTLY_VIEWED) {
+            return byFrequency.first().id;
+        }
+        return historyStorage.getFirst().getId();
+    }
+
+    //the history is in view order, so the expired tasks are at its head
+    private void expire() {
+        long oldestAllowed = clock.millis() - window.toMillis();
+        Task first = historyStorage.getFirst();
+        while (first != null && lastViewTimes.get(first.getId()) < oldestAllowed) {
+            remove(first.getId());
+            first = historyStorage.getFirst();
+        }
+    }
+
+    private static class ViewCount {
+        private int id;
+        private long count;
+        private long lastView;
+    }
+}
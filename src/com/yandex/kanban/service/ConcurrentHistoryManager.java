@@ -0,0 +1,107 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Task;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+//views are queued without a lock and applied to the ordered history in batches. a viewing thread only drains
+//the queue when it is long and nobody else is draining it, every other operation drains it fully first, so
+//the history it sees contains all views recorded before the call
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int DEFAULT_DRAIN_THRESHOLD = 64;
+    private final HistoryManager historyManager;
+    private final int drainThreshold;
+    private final Queue<Task> pendingViews = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Lock lock = new ReentrantLock();
+
+    public ConcurrentHistoryManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public ConcurrentHistoryManager(HistoryManager historyManager) {
+        this(historyManager, DEFAULT_DRAIN_THRESHOLD);
+    }
+
+    public ConcurrentHistoryManager(HistoryManager historyManager, int drainThreshold) {
+        if (drainThreshold < 1) {
+            throw new IllegalArgumentException("drain threshold must be positive");
+        }
+        this.historyManager = historyManager;
+        this.drainThreshold = drainThreshold;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        pendingViews.offer(task);
+        if (pendingCount.incrementAndGet() >= drainThreshold && lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        lock.lock();
+        try {
+            drain();
+            historyManager.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            drain();
+            historyManager.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        lock.lock();
+        try {
+            drain();
+            return historyManager.getHistory();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> getHistoryPositions() {
+        lock.lock();
+        try {
+            drain();
+            return historyManager.getHistoryPositions();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //must be called with the lock held
+    private void drain() {
+        Task task;
+        while ((task = pendingViews.poll()) != null) {
+            pendingCount.decrementAndGet();
+            historyManager.add(task);
+        }
+    }
+}
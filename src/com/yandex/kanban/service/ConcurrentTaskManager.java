@@ -0,0 +1,238 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    //reentrant because InMemoryTaskManager calls its own overridable methods, e.g. addTask -> addEpic
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ConcurrentTaskManager() {
+        super(new ConcurrentHistoryManager());
+    }
+
+    //views are recorded under the shared read lock, so a history that is not concurrent itself is wrapped
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        super(historyManager instanceof ConcurrentHistoryManager ? historyManager
+                : new ConcurrentHistoryManager(historyManager));
+    }
+
+    @Override
+    public Task createTask(String title, String description) {
+        return withLock(lock.writeLock(), () -> copy(super.createTask(title, description)));
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        return withLock(lock.writeLock(), () -> (Epic) copy(super.createEpic(title, description)));
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, int epicId) {
+        return withLock(lock.writeLock(), () -> (Subtask) copy(super.createSubtask(title, description, epicId)));
+    }
+
+    //the manager keeps a copy, so the caller's task is not shared with other threads after it is added
+    @Override
+    public int addTask(Task task) {
+        return withLock(lock.writeLock(), () -> addCopy(task, super::addTask));
+    }
+
+    @Override
+    public int addEpic(Epic epic) {
+        return withLock(lock.writeLock(), () -> addCopy(epic, stored -> super.addEpic((Epic) stored)));
+    }
+
+    @Override
+    public int addSubtask(Subtask subtask) {
+        return withLock(lock.writeLock(), () -> addCopy(subtask, stored -> super.addSubtask((Subtask) stored)));
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return withLock(lock.readLock(), () -> copy(super.getTaskById(id)));
+    }
+
+    //the history holds the live tasks, they are copied under the read lock so writers can't change them meanwhile
+    @Override
+    public List<Task> getHistory() {
+        return withLock(lock.readLock(), () -> super.getHistory().stream().map(this::copy).toList());
+    }
+
+    @Override
+    public boolean containsTask(int id) {
+        return withLock(lock.readLock(), () -> super.containsTask(id));
+    }
+
+    @Override
+    public Task findTaskById(int id) {
+        return withLock(lock.readLock(), () -> copy(super.findTaskById(id)));
+    }
+
+    @Override
+    public List<Task> getAllKindOfTasks() {
+        return withLock(lock.readLock(), () -> super.getAllKindOfTasks().stream().map(this::copy).toList());
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return withLock(lock.readLock(), () -> super.getAllTasks().stream().map(this::copy).toList());
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return withLock(lock.readLock(), () -> super.getAllEpics().stream().map(el -> (Epic) copy(el)).toList());
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return withLock(lock.readLock(), () -> super.getAllSubtasks().stream()
+                .map(el -> (Subtask) copy(el))
+                .toList());
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasksByEpicId(int epicId) {
+        return withLock(lock.readLock(), () -> super.getAllSubtasksByEpicId(epicId).stream()
+                .map(el -> (Subtask) copy(el))
+                .toList());
+    }
+
+    //returns a snapshot, the live set can't be iterated while other threads change it
+    @Override
+    public Set<Task> getPrioritizedTasks() {
+        return withLock(lock.readLock(), () -> {
+            Set<Task> snapshot = new TreeSet<>(prioritizedTasks.comparator());
+            prioritizedTasks.forEach(el -> snapshot.add(copy(el)));
+            return Collections.unmodifiableSet(snapshot);
+        });
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return withLock(lock.readLock(), () -> super.getPrioritizedTasks(from, to, limit).stream()
+                .map(this::copy)
+                .toList());
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime notBefore, Duration duration) {
+        return withLock(lock.readLock(), () -> super.findFreeSlot(notBefore, duration));
+    }
+
+    @Override
+    public void removeAllTasks() {
+        withLock(lock.writeLock(), super::removeAllTasks);
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        withLock(lock.writeLock(), () -> super.removeTaskById(id));
+    }
+
+    @Override
+    public void updateTitle(String title, int id) {
+        withLock(lock.writeLock(), () -> super.updateTitle(title, id));
+    }
+
+    @Override
+    public void updateDescription(String description, int id) {
+        withLock(lock.writeLock(), () -> super.updateDescription(description, id));
+    }
+
+    @Override
+    public void updateStatus(TaskStatus status, int id) {
+        withLock(lock.writeLock(), () -> super.updateStatus(status, id));
+    }
+
+    @Override
+    public void updateStartTime(LocalDateTime startTime, int id) {
+        withLock(lock.writeLock(), () -> super.updateStartTime(startTime, id));
+    }
+
+    @Override
+    public void updateDuration(Duration newDuration, int id) {
+        withLock(lock.writeLock(), () -> super.updateDuration(newDuration, id));
+    }
+
+    //epic aggregates built lazily on first access go to a concurrent map, so a read lock is enough
+    @Override
+    public LocalDateTime getEndTime(int id) {
+        return withLock(lock.readLock(), () -> super.getEndTime(id));
+    }
+
+    //returned tasks are serialized after the lock is released, so readers get copies taken under it
+    //instead of the live tasks other threads keep changing
+    private Task copy(Task task) {
+        if (task == null) {
+            return null;
+        }
+        Task copy;
+        if (task instanceof Epic) {
+            copy = new Epic(task.getTitle(), task.getDescription());
+        } else if (task instanceof Subtask) {
+            copy = new Subtask(task.getTitle(), task.getDescription(), ((Subtask) task).getEpicId());
+        } else {
+            copy = new Task(task.getTitle(), task.getDescription());
+        }
+        copyFields(task, copy);
+        return copy;
+    }
+
+    //the fields set while adding (id, reset epic fields, a start time dropped on intersection) are copied back
+    //to the caller's task even if adding fails, as if the task itself was added
+    private int addCopy(Task task, ToIntFunction<Task> add) {
+        if (task == null) {
+            return add.applyAsInt(null);
+        }
+        Task stored = copy(task);
+        try {
+            return add.applyAsInt(stored);
+        } finally {
+            copyFields(stored, task);
+        }
+    }
+
+    private void copyFields(Task from, Task to) {
+        to.setId(from.getId());
+        to.setStatus(from.getStatus());
+        to.setStartTime(from.getStartTime());
+        to.setDuration(from.getDuration());
+        if (from instanceof Epic) {
+            ((Epic) to).setSubtasksIds(new ArrayList<>(((Epic) from).getSubtasksIds()));
+        }
+    }
+
+    private <T> T withLock(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void withLock(Lock lock, Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
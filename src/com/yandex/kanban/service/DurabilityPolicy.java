@@ -0,0 +1,53 @@
+package com.yandex.kanban.service;
+
+public class DurabilityPolicy {
+    private static final int DEFAULT_MAX_PENDING_CHANGES = 1024;
+    private final long flushIntervalMillis;
+    private final int maxPendingChanges;
+    private final boolean fsync;
+
+    private DurabilityPolicy(long flushIntervalMillis, int maxPendingChanges, boolean fsync) {
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPendingChanges = maxPendingChanges;
+        this.fsync = fsync;
+    }
+
+    //every mutation is written and forced to disk before the call returns
+    public static DurabilityPolicy fsyncAlways() {
+        return new DurabilityPolicy(0, 1, true);
+    }
+
+    //mutations are batched and written + forced by a background flusher, up to millis of them can be lost
+    public static DurabilityPolicy fsyncEvery(long millis) {
+        return fsyncEvery(millis, DEFAULT_MAX_PENDING_CHANGES);
+    }
+
+    public static DurabilityPolicy fsyncEvery(long millis, int maxPendingChanges) {
+        if (millis <= 0 || maxPendingChanges <= 0) {
+            throw new IllegalArgumentException("flush interval and batch size must be positive");
+        }
+        return new DurabilityPolicy(millis, maxPendingChanges, true);
+    }
+
+    //every mutation is written before the call returns, but stays in the OS page cache. only a snapshot that
+    //replaces a non-empty log is forced, so the log is never deleted before the snapshot holding it is on disk
+    public static DurabilityPolicy osBuffered() {
+        return new DurabilityPolicy(0, 1, false);
+    }
+
+    public boolean isBatched() {
+        return flushIntervalMillis > 0;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public int getMaxPendingChanges() {
+        return maxPendingChanges;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+}
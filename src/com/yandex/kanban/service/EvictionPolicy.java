@@ -0,0 +1,7 @@
+package com.yandex.kanban.service;
+
+public enum EvictionPolicy {
+    LEAST_RECENTLY_VIEWED,
+    LEAST_FREQUENTLY_VIEWED,
+    TIME_WINDOW
+}
@@ -4,187 +4,724 @@ import com.yandex.kanban.model.Epic;
 import com.yandex.kanban.model.Subtask;
 import com.yandex.kanban.model.Task;
 import com.yandex.kanban.model.TaskStatus;
+import com.yandex.kanban.util.BinaryConverter;
 import com.yandex.kanban.util.Converter;
+import com.yandex.kanban.util.TaskRecord;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+//mutations are serialized on the manager monitor, the background flusher takes it only to collect pending state
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String LOG_SUFFIX = ".log";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int DEFAULT_MAX_LOG_RECORDS = 10_000;
+    private static final long PARALLEL_LOAD_THRESHOLD = 1 << 20;
+    private static final String UPSERT_RECORD = "U";
+    private static final String DELETE_RECORD = "D";
+    private static final String VIEW_RECORD = "V";
+    private static final String CLEAR_RECORD = "C";
+    private static final String RECORD_SEPARATOR = ";";
     private final Path path;
+    private final Path logPath;
+    private final Path tempPath;
+    private final SaveMode saveMode;
+    private final DurabilityPolicy durabilityPolicy;
+    private final StorageFormat storageFormat;
+    private final ScheduledExecutorService flusher;
+    private final Object fileLock = new Object();
+    private final Set<Integer> dirtyIds = new LinkedHashSet<>();
+    private final Set<Integer> viewedIds = new LinkedHashSet<>();
+    private boolean cleared;
+    private boolean snapshotDirty;
+    private int pendingChanges;
+    private boolean flushRequested;
+    private boolean flusherScheduled;
+    private volatile RuntimeException flushFailure;
+    private volatile boolean closed;
+    private FileChannel logChannel;
+    private int logRecords;
+    private int maxLogRecords = DEFAULT_MAX_LOG_RECORDS;
 
     public FileBackedTaskManager(String fileName) {
-        this.path = Paths.get(fileName);
-        createSaveFile(this.path);
-        load();
+        this(Paths.get(fileName));
     }
 
     public FileBackedTaskManager(Path path) {
+        this(path, SaveMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(Path path, SaveMode saveMode) {
+        this(path, saveMode, DurabilityPolicy.osBuffered());
+    }
+
+    public FileBackedTaskManager(Path path, SaveMode saveMode, DurabilityPolicy durabilityPolicy) {
+        this(path, saveMode, durabilityPolicy, StorageFormat.CSV);
+    }
+
+    //storageFormat is the format snapshots are written in, the existing file is read in whatever format it has
+    public FileBackedTaskManager(Path path, SaveMode saveMode, DurabilityPolicy durabilityPolicy,
+                                 StorageFormat storageFormat) {
         this.path = path;
+        this.logPath = path.resolveSibling(path.getFileName() + LOG_SUFFIX);
+        this.tempPath = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        this.saveMode = saveMode;
+        this.durabilityPolicy = durabilityPolicy;
+        this.storageFormat = storageFormat;
         createSaveFile(this.path);
         load();
+        if (durabilityPolicy.isBatched()) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-manager-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            flusher = null;
+        }
     }
 
     @Override
-    public Task createTask(String title, String description) {
+    public synchronized Task createTask(String title, String description) {
+        ensureWritable();
         Task task = super.createTask(title, description);
-        save();
+        save(task.getId());
         return task;
     }
 
     @Override
-    public Epic createEpic(String title, String description) {
+    public synchronized Epic createEpic(String title, String description) {
+        ensureWritable();
         Epic epic = super.createEpic(title, description);
-        save();
+        save(epic.getId());
         return epic;
     }
 
     @Override
-    public Subtask createSubtask(String title, String description, int epicId) {
+    public synchronized Subtask createSubtask(String title, String description, int epicId) {
+        ensureWritable();
         Subtask subtask = super.createSubtask(title, description, epicId);
-        save();
+        save(subtask.getId(), epicId);
         return subtask;
     }
 
+    //epics and subtasks are saved by addEpic/addSubtask that super.addTask delegates to. a task crossing
+    //the schedule is kept without its time before IntersectionException is thrown, so it is saved anyway
     @Override
-    public int addTask(Task task) {
-        int id = super.addTask(task);
-        save();
-        return id;
+    public synchronized int addTask(Task task) {
+        ensureWritable();
+        if (task == null || task instanceof Epic || task instanceof Subtask) {
+            return super.addTask(task);
+        }
+        try {
+            return super.addTask(task);
+        } finally {
+            if (isStored(task)) {
+                save(task.getId());
+            }
+        }
     }
 
     @Override
-    public int addEpic(Epic epic) {
+    public synchronized int addEpic(Epic epic) {
+        ensureWritable();
         int id = super.addEpic(epic);
-        save();
+        if (id != -1) {
+            save(id);
+        }
         return id;
     }
 
     @Override
-    public void updateDuration(Duration newDuration, int id) {
-        super.updateDuration(newDuration, id);
-        save();
+    public synchronized void updateDuration(Duration newDuration, int id) {
+        ensureWritable();
+        try {
+            super.updateDuration(newDuration, id);
+        } finally {
+            if (tasksMap.containsKey(id)) {
+                save(withEpicId(id));
+            }
+        }
     }
 
+    //a crossing start time may already have changed the task before IntersectionException is thrown
     @Override
-    public void updateStartTime(LocalDateTime startTime, int id) {
-        super.updateStartTime(startTime, id);
-        save();
+    public synchronized void updateStartTime(LocalDateTime startTime, int id) {
+        ensureWritable();
+        try {
+            super.updateStartTime(startTime, id);
+        } finally {
+            if (tasksMap.containsKey(id)) {
+                save(withEpicId(id));
+            }
+        }
     }
 
+    //a view is appended to the log in both modes, it never costs a snapshot rewrite. with a batched policy
+    //views are coalesced and written by the flusher
     @Override
-    public Task getTaskById(int id) {
+    public synchronized Task getTaskById(int id) {
+        ensureWritable();
         Task taskById = super.getTaskById(id);
-        save();
+        if (taskById != null) {
+            viewedIds.remove(id);
+            viewedIds.add(id);
+            changed();
+        }
         return taskById;
     }
 
     @Override
-    public int addSubtask(Subtask subtask) {
-        int id = super.addSubtask(subtask);
-        save();
-        return id;
+    public synchronized int addSubtask(Subtask subtask) {
+        ensureWritable();
+        try {
+            return super.addSubtask(subtask);
+        } finally {
+            if (isStored(subtask)) {
+                save(subtask.getId(), subtask.getEpicId());
+            }
+        }
     }
 
     @Override
-    public void removeAllTasks() {
+    public synchronized void removeAllTasks() {
+        ensureWritable();
         super.removeAllTasks();
-        save();
+        if (saveMode == SaveMode.SNAPSHOT) {
+            save();
+        } else {
+            dirtyIds.clear();
+            viewedIds.clear();
+            cleared = true;
+            changed();
+        }
     }
 
+    //nothing is logged for a missing id, a delete record would move the id counter on replay
     @Override
-    public void removeTaskById(int id) {
+    public synchronized void removeTaskById(int id) {
+        ensureWritable();
+        if (!tasksMap.containsKey(id)) {
+            super.removeTaskById(id);
+            return;
+        }
+        int[] changedIds = withEpicId(id);
+        if (tasksMap.get(id) instanceof Epic) {
+            changedIds = Stream.concat(Stream.of(id), ((Epic) tasksMap.get(id)).getSubtasksIds().stream())
+                    .mapToInt(el -> el)
+                    .toArray();
+        }
         super.removeTaskById(id);
-        save();
+        save(changedIds);
     }
 
     @Override
-    public void updateTitle(String title, int id) {
+    public synchronized void updateTitle(String title, int id) {
+        ensureWritable();
         super.updateTitle(title, id);
-        save();
+        save(id);
     }
 
     @Override
-    public void updateDescription(String description, int id) {
+    public synchronized void updateDescription(String description, int id) {
+        ensureWritable();
         super.updateDescription(description, id);
-        save();
+        save(id);
     }
 
     @Override
-    public void updateStatus(TaskStatus status, int id) {
+    public synchronized void updateStatus(TaskStatus status, int id) {
+        ensureWritable();
         super.updateStatus(status, id);
-        save();
+        save(withEpicId(id));
+    }
+
+    private int[] withEpicId(int id) {
+        if (tasksMap.get(id) instanceof Subtask) {
+            return new int[]{id, ((Subtask) tasksMap.get(id)).getEpicId()};
+        }
+        return new int[]{id};
+    }
+
+    //in log mode only the ids are marked, their records are built on flush
+    private void save(int... changedIds) {
+        if (saveMode == SaveMode.SNAPSHOT) {
+            save();
+            return;
+        }
+        for (int changedId : changedIds) {
+            dirtyIds.add(changedId);
+        }
+        changed();
     }
 
+    //the snapshot is built when flushed, so a batch of mutations costs a single rewrite
     private void save() {
+        snapshotDirty = true;
+        changed();
+    }
+
+    //checked before a mutation is applied, so a manager that can't store it rejects it without changing anything.
+    //a failed background flush is rethrown until a manual flush() succeeds
+    private void ensureWritable() {
+        if (closed) {
+            throw new IllegalStateException("manager is closed");
+        }
+        RuntimeException failure = flushFailure;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void changed() {
+        pendingChanges++;
+        if (flusher == null) {
+            flush();
+            return;
+        }
+        //the periodic flush is scheduled on the first change, the constructor must not hand this to another thread
+        if (!flusherScheduled) {
+            long interval = durabilityPolicy.getFlushIntervalMillis();
+            flusher.scheduleWithFixedDelay(this::flushInBackground, interval, interval, TimeUnit.MILLISECONDS);
+            flusherScheduled = true;
+        }
+        if (pendingChanges >= durabilityPolicy.getMaxPendingChanges() && !flushRequested) {
+            flushRequested = true;
+            flusher.execute(this::flushInBackground);
+        }
+    }
+
+    //writes everything collected since the previous flush, forcing it to disk if the policy asks to.
+    //with a batched policy every flush runs on the flusher thread, so batches reach the file in the order
+    //they were collected and a snapshot never overtakes a later log batch
+    public void flush() {
+        if (flusher != null) {
+            try {
+                awaitFlush(flusher.submit(this::writePending));
+                return;
+            } catch (RejectedExecutionException e) {
+                //the manager is closed, the flusher writes what it already has queued before it terminates
+                awaitFlusherTermination();
+            }
+        }
+        synchronized (this) {
+            writePending();
+        }
+    }
+
+    private void awaitFlush(Future<?> flushed) {
+        try {
+            flushed.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Прерван сброс изменений в файл", e);
+        }
+    }
+
+    //collects the pending state under the monitor and writes it outside of it, the callers make sure
+    //that writes don't overlap
+    private void writePending() {
+        List<String> records;
+        byte[] snapshot = null;
+        synchronized (this) {
+            records = dirtyRecords();
+            logRecords += records.size();
+            //the log is folded into a fresh snapshot once it grows past the limit, that bounds the replay on load
+            if (logRecords >= maxLogRecords) {
+                snapshotDirty = true;
+            }
+            if (snapshotDirty) {
+                snapshot = encodeSnapshot(managerToRecords(), storageFormat);
+                snapshotDirty = false;
+                records = List.of();
+                logRecords = 0;
+            }
+            pendingChanges = 0;
+            flushRequested = false;
+        }
+        synchronized (fileLock) {
+            if (snapshot != null) {
+                writeSnapshot(snapshot);
+            }
+            if (!records.isEmpty()) {
+                appendToLog(records);
+            }
+        }
+        flushFailure = null;
+    }
+
+    //every task changed since the previous flush gets one record with its current state, however many times it was
+    //changed, and every viewed task one view record in the order of the last views. replaying them gives
+    //the same tasks and history as replaying every single change
+    private List<String> dirtyRecords() {
+        List<String> records = new ArrayList<>();
+        if (cleared) {
+            records.add(CLEAR_RECORD + RECORD_SEPARATOR + id);
+            cleared = false;
+        }
+        for (int dirtyId : dirtyIds) {
+            Task task = tasksMap.get(dirtyId);
+            if (task == null) {
+                records.add(DELETE_RECORD + RECORD_SEPARATOR + dirtyId);
+            } else {
+                records.add(UPSERT_RECORD + RECORD_SEPARATOR + Converter.taskToString(task, -1, isPrioritized(task)));
+            }
+        }
+        for (int viewedId : viewedIds) {
+            if (tasksMap.containsKey(viewedId)) {
+                records.add(VIEW_RECORD + RECORD_SEPARATOR + viewedId);
+            }
+        }
+        dirtyIds.clear();
+        viewedIds.clear();
+        return records;
+    }
+
+    public synchronized void setMaxLogRecords(int maxLogRecords) {
+        if (maxLogRecords < 1) {
+            throw new IllegalArgumentException("max log records must be positive");
+        }
+        this.maxLogRecords = maxLogRecords;
+    }
+
+    private void awaitFlusherTermination() {
+        try {
+            flusher.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Прерван сброс изменений в файл", e);
+        }
+    }
+
+    //the flusher has no caller to throw to, so the failure is rethrown on the next mutation instead of applying it
+    private void flushInBackground() {
         try {
-            Files.write(path, managerToLines());
+            writePending();
+        } catch (RuntimeException e) {
+            flushFailure = e;
+        }
+    }
+
+    //mutations after close are rejected with IllegalStateException, the pending ones are flushed
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+        synchronized (fileLock) {
+            closeLog();
+        }
+    }
+
+    //the snapshot is written to a temp file and moved over the old one, so a crash leaves either the old or the new one.
+    //if it happens before the log is deleted, the log is replayed over the new snapshot, which is idempotent.
+    //the temp file and the rename are forced with an fsync policy, and with any policy when a non-empty log is
+    //compacted: the log is deleted right after, and a rename that reaches the disk before the data would leave
+    //an empty snapshot with nothing to rebuild it from. otherwise a buffered policy leaves both to the OS
+    private void writeSnapshot(byte[] snapshot) {
+        try {
+            boolean isForced = durabilityPolicy.isFsync() || Files.exists(logPath) && Files.size(logPath) > 0;
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, ByteBuffer.wrap(snapshot));
+                if (isForced) {
+                    channel.force(false);
+                }
+            }
+            Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (isForced) {
+                forceDirectory();
+            }
+            //the snapshot already contains everything the log had
+            closeLog();
+            Files.deleteIfExists(logPath);
         } catch (IOException e) {
             throw new RuntimeException("Ошибка записи файла сохранения", e);
         }
     }
 
-    private List<String> managerToLines() {
-        List<Task> history = historyManager.getHistory();
-        return tasksMap.values().stream().map(el -> {
-            int historyIndex = history.indexOf(el);
-            if (el.getStartTime() != null && prioritizedTasks.contains(el)) {
-                return Converter.taskToString(el, historyIndex, true);
-            } else {
-                return Converter.taskToString(el, historyIndex, false);
+    //makes the rename durable, not every platform allows to open a directory so a failure here is not fatal
+    private void forceDirectory() {
+        Path directory = path.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            //the snapshot itself is already forced
+        }
+    }
+
+    private void appendToLog(List<String> records) {
+        try {
+            if (logChannel == null) {
+                logChannel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            writeLines(logChannel, records.stream().map(this::withChecksum).toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка записи журнала изменений", e);
+        }
+    }
+
+    private void writeLines(FileChannel channel, List<String> lines) throws IOException {
+        writeFully(channel, ByteBuffer.wrap(linesToBytes(lines)));
+        if (durabilityPolicy.isFsync()) {
+            channel.force(false);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] linesToBytes(List<String> lines) {
+        StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            builder.append(line).append(System.lineSeparator());
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String withChecksum(String record) {
+        return Long.toHexString(checksum(record)) + RECORD_SEPARATOR + record;
+    }
+
+    //returns null if the line was not written completely
+    private String checkedRecord(String line) {
+        String[] lineParts = line.split(RECORD_SEPARATOR, 2);
+        if (lineParts.length < 2) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lineParts[0], 16) == checksum(lineParts[1]) ? lineParts[1] : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private long checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private void closeLog() {
+        if (logChannel == null) {
+            return;
+        }
+        try {
+            logChannel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка записи журнала изменений", e);
+        } finally {
+            logChannel = null;
+        }
+    }
+
+    private List<TaskRecord> managerToRecords() {
+        Map<Integer, Integer> historyPositions = historyManager.getHistoryPositions();
+        return tasksMap.values().stream()
+                .map(el -> new TaskRecord(el, historyPositions.getOrDefault(el.getId(), -1), isPrioritized(el)))
+                .toList();
+    }
+
+    private static byte[] encodeSnapshot(List<TaskRecord> records, StorageFormat format) {
+        if (format == StorageFormat.CSV) {
+            StringBuilder builder = new StringBuilder(records.size() * 64);
+            for (TaskRecord record : records) {
+                Converter.appendTask(builder, record.getTask(), record.getHistoryManagerPosition(),
+                        record.isInPrioritizedTasks()).append(System.lineSeparator());
+            }
+            return builder.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryConverter.writeHeader(out);
+        records.forEach(el -> BinaryConverter.writeRecord(out, el.getTask(), el.getHistoryManagerPosition(),
+                el.isInPrioritizedTasks()));
+        return out.toByteArray();
+    }
+
+    //rewrites a save file together with the change log next to it as a single snapshot in the given format.
+    //the target is written to a temp file and moved in place, so a failed conversion never leaves it half written
+    public static void convert(Path source, Path target, StorageFormat targetFormat) {
+        Path tempTarget = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(source)) {
+            byte[] snapshot = encodeSnapshot(manager.managerToRecords(), targetFormat);
+            try (FileChannel channel = FileChannel.open(tempTarget, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, ByteBuffer.wrap(snapshot));
+                channel.force(false);
+            }
+            Files.move(tempTarget, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка записи файла сохранения", e);
+        }
+    }
+
+    public static StorageFormat detectFormat(Path path) throws IOException {
+        byte[] header = new byte[BinaryConverter.headerLength()];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(header);
+            int read = 0;
+            while (buffer.hasRemaining() && read != -1) {
+                read = channel.read(buffer);
             }
-        }).toList();
+        }
+        return BinaryConverter.hasHeader(header) ? StorageFormat.BINARY : StorageFormat.CSV;
+    }
+
+    //csv lines are parsed once each; on a large file they are parsed in chunks on the fork-join pool,
+    //the ordered stream keeps them in file order
+    private static List<TaskRecord> readSnapshot(Path path) throws IOException {
+        if (detectFormat(path) == StorageFormat.BINARY) {
+            return BinaryConverter.readRecords(ByteBuffer.wrap(Files.readAllBytes(path)));
+        }
+        try (Stream<String> lines = Files.lines(path)) {
+            Stream<String> linesToParse = Files.size(path) > PARALLEL_LOAD_THRESHOLD ? lines.parallel() : lines;
+            return linesToParse.map(Converter::stringToRecord).toList();
+        }
+    }
+
+    private boolean isPrioritized(Task task) {
+        return task.getStartTime() != null && prioritizedTasks.contains(task);
     }
 
     private void load() {
-        List<Integer> prioritizedTasksIds = new ArrayList<>();
+        Map<Integer, Task> loadedTasks = new HashMap<>();
+        Set<Integer> prioritizedTasksIds = new HashSet<>();
         Map<Integer, Integer> historyManagerIdsIndexes = new TreeMap<>();
-        try (Stream<String> lines = Files.lines(path)) {
-            List<String> listOfLines = lines.toList();
-            fillPrioritizedTasksIds(prioritizedTasksIds, listOfLines);
-            fillHistoryManagerIdsIndexes(historyManagerIdsIndexes, listOfLines);
-            fillTaskMap(listOfLines);
-            prioritizedTasksIds.forEach(el -> prioritizedTasks.add(tasksMap.get(el)));
-            historyManagerIdsIndexes.forEach((index, id) -> historyManager.add(tasksMap.get(id)));
+        Set<Integer> historyIds = new LinkedHashSet<>();
+        int maxId = 0;
+        try {
+            List<TaskRecord> records = readSnapshot(path);
+            for (TaskRecord record : records) {
+                Task task = record.getTask();
+                if (task == null) {
+                    continue;
+                }
+                loadedTasks.put(task.getId(), task);
+                if (record.isInPrioritizedTasks()) {
+                    prioritizedTasksIds.add(task.getId());
+                }
+                if (record.getHistoryManagerPosition() != -1) {
+                    historyManagerIdsIndexes.put(record.getHistoryManagerPosition(), task.getId());
+                }
+                maxId = Math.max(maxId, task.getId());
+            }
+            historyIds.addAll(historyManagerIdsIndexes.values());
+            if (Files.exists(logPath)) {
+                maxId = Math.max(maxId, replayLog(loadedTasks, prioritizedTasksIds, historyIds));
+            }
+            loadedTasks.values().forEach(el -> putLoadedTask(el, prioritizedTasksIds.contains(el.getId())));
+            historyIds.forEach(el -> historyManager.add(tasksMap.get(el)));
         } catch (IOException e) {
             throw new RuntimeException("Ошибка при чтении файла: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new RuntimeException("Некорректные данные в файле: " + e.getMessage(), e);
         }
-        this.id = tasksMap.keySet().stream().mapToInt(el -> el).max().orElse(0);
+        this.id = maxId;
     }
 
-    private void fillPrioritizedTasksIds(List<Integer> prioritizedTasksIds, List<String> lines) {
-        lines.forEach(el -> {
-            String[] saveLineParts = el.split(";");
-            int id = Integer.parseInt(saveLineParts[0]);
-            if (saveLineParts[saveLineParts.length - 1].equals("true")) {
-                prioritizedTasksIds.add(id);
+    //returns the max id met in the log, so ids of tasks removed after the snapshot are not reused.
+    //a torn last record is what a crash in the middle of an append leaves, it is cut off; a broken record
+    //followed by valid ones means the log is corrupted
+    private int replayLog(Map<Integer, Task> loadedTasks, Set<Integer> prioritizedTasksIds,
+                          Set<Integer> historyIds) throws IOException {
+        byte[] bytes = Files.readAllBytes(logPath);
+        int maxId = 0;
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                lineEnd++;
             }
-        });
-    }
-
-    private void fillHistoryManagerIdsIndexes(Map<Integer, Integer> historyManagerIdsIndexes, List<String> lines) {
-        lines.forEach(el -> {
-            String[] saveLineParts = el.split(";");
-            int id = Integer.parseInt(saveLineParts[0]);
-            if (!saveLineParts[saveLineParts.length - 2].equals("-1")) {
-                int indexInHistory = Integer.parseInt(saveLineParts[saveLineParts.length - 2]);
-                historyManagerIdsIndexes.put(indexInHistory, id);
+            String record = null;
+            if (lineEnd < bytes.length) {
+                int contentEnd = lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                record = checkedRecord(new String(bytes, lineStart, contentEnd - lineStart, StandardCharsets.UTF_8));
             }
-        });
+            if (record == null) {
+                if (lineEnd < bytes.length - 1) {
+                    throw new IllegalStateException("corrupted log record at byte " + lineStart);
+                }
+                try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+                    channel.truncate(lineStart);
+                }
+                break;
+            }
+            maxId = Math.max(maxId, applyRecord(record, loadedTasks, prioritizedTasksIds, historyIds));
+            logRecords++;
+            lineStart = lineEnd + 1;
+        }
+        return maxId;
     }
 
-    private void fillTaskMap(List<String> lines) {
-        lines.stream()
-                .map(Converter::stringToTask)
-                .filter(Objects::nonNull)
-                .forEach(el -> tasksMap.put(el.getId(), el));
+    private int applyRecord(String record, Map<Integer, Task> loadedTasks, Set<Integer> prioritizedTasksIds,
+                            Set<Integer> historyIds) {
+        String[] recordParts = record.split(RECORD_SEPARATOR, 2);
+        switch (recordParts[0]) {
+            case UPSERT_RECORD -> {
+                Task task = Converter.stringToTask(recordParts[1]);
+                loadedTasks.put(task.getId(), task);
+                if (recordParts[1].endsWith(RECORD_SEPARATOR + true)) {
+                    prioritizedTasksIds.add(task.getId());
+                } else {
+                    prioritizedTasksIds.remove(task.getId());
+                }
+                return task.getId();
+            }
+            case DELETE_RECORD -> {
+                int deletedId = Integer.parseInt(recordParts[1]);
+                loadedTasks.remove(deletedId);
+                prioritizedTasksIds.remove(deletedId);
+                historyIds.remove(deletedId);
+                //the task may have been created and deleted between two flushes, without an upsert record
+                return deletedId;
+            }
+            case VIEW_RECORD -> {
+                int viewedId = Integer.parseInt(recordParts[1]);
+                historyIds.remove(viewedId);
+                historyIds.add(viewedId);
+            }
+            case CLEAR_RECORD -> {
+                loadedTasks.clear();
+                prioritizedTasksIds.clear();
+                historyIds.clear();
+                //older logs have no id counter in the clear record
+                return recordParts.length > 1 ? Integer.parseInt(recordParts[1]) : 0;
+            }
+            default -> throw new IllegalStateException("unknown log record " + record);
+        }
+        return 0;
     }
 
     private void createSaveFile(Path path) {
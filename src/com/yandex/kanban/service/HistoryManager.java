@@ -2,7 +2,9 @@ package com.yandex.kanban.service;
 
 import com.yandex.kanban.model.Task;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public interface HistoryManager {
     void add(Task task);
@@ -12,4 +14,14 @@ public interface HistoryManager {
     void clear();
 
     List<Task> getHistory();
+
+    //id -> position in history for persisting the whole history at once
+    default Map<Integer, Integer> getHistoryPositions() {
+        List<Task> history = getHistory();
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < history.size(); i++) {
+            positions.put(history.get(i).getId(), i);
+        }
+        return positions;
+    }
 }
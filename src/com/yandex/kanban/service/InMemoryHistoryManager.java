@@ -4,6 +4,7 @@ import com.yandex.kanban.model.Task;
 import com.yandex.kanban.util.HistoryStorage;
 
 import java.util.List;
+import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
@@ -27,6 +28,11 @@ public class InMemoryHistoryManager implements HistoryManager {
         return historyStorage.getTasks();
     }
 
+    @Override
+    public Map<Integer, Integer> getHistoryPositions() {
+        return historyStorage.getPositions();
+    }
+
     public void clear() {
         historyStorage.clear();
     }
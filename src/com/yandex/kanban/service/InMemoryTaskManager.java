@@ -5,32 +5,54 @@ import com.yandex.kanban.model.Epic;
 import com.yandex.kanban.model.Subtask;
 import com.yandex.kanban.model.Task;
 import com.yandex.kanban.model.TaskStatus;
+import com.yandex.kanban.util.EpicAggregate;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.function.BiPredicate;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class InMemoryTaskManager implements TaskManager {
 
+    private static final Duration MAX_DURATION = ChronoUnit.FOREVER.getDuration();
+
     protected int id = 0;
     protected final Map<Integer, Task> tasksMap = new HashMap<>();
-    protected final Set<Task> prioritizedTasks = new TreeSet<>(Comparator
+    protected final Map<Integer, Task> tasks = new HashMap<>();
+    protected final Map<Integer, Epic> epics = new HashMap<>();
+    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
+    protected final NavigableSet<Task> prioritizedTasks = new TreeSet<>(Comparator
             .comparing(Task::getStartTime)
             .thenComparing(Task::getDuration)
             .thenComparing(Task::getId));
-    protected final HistoryManager historyManager = Managers.getDefaultHistory();
+    protected final HistoryManager historyManager;
+    //concurrent because aggregates are built lazily, also by readers of ConcurrentTaskManager sharing its read lock
+    private final Map<Integer, EpicAggregate> epicAggregates = new ConcurrentHashMap<>();
+
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
 
     @Override
     public HistoryManager getHistoryManager() {
         return historyManager;
     }
 
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
     @Override
     public Task createTask(String title, String description) {
         Task task = new Task(title, description);
         task.setId(this.nextId());
-        tasksMap.put(task.getId(), task);
+        putTaskToMaps(task);
         return task;
     }
 
@@ -38,7 +60,7 @@ public class InMemoryTaskManager implements TaskManager {
     public Epic createEpic(String title, String description) {
         Epic epic = new Epic(title, description);
         epic.setId(this.nextId());
-        tasksMap.put(epic.getId(), epic);
+        putTaskToMaps(epic);
         return epic;
     }
 
@@ -50,9 +72,11 @@ public class InMemoryTaskManager implements TaskManager {
         Subtask subtask = new Subtask(title, description, epicId);
         subtask.setId(this.nextId());
         Epic epic = (Epic) tasksMap.get(epicId);
+        EpicAggregate aggregate = getEpicAggregate(epic);
         epic.getSubtasksIds().add(subtask.getId());
-        tasksMap.put(subtask.getId(), subtask);
-        setEpicStatus(epic);
+        putTaskToMaps(subtask);
+        aggregate.add(subtask);
+        updateEpicFields(epic);
         return subtask;
     }
 
@@ -68,7 +92,7 @@ public class InMemoryTaskManager implements TaskManager {
             return addSubtask((Subtask) task);
         }
         task.setId(this.nextId());
-        tasksMap.put(task.getId(), task);
+        putTaskToMaps(task);
         addTaskToPrioritizedTasks(task);
         return task.getId();
     }
@@ -83,7 +107,7 @@ public class InMemoryTaskManager implements TaskManager {
         epic.setStartTime(null);
         epic.setDuration(Duration.ZERO);
         epic.setSubtasksIds(new ArrayList<>());
-        tasksMap.put(epic.getId(), epic);
+        putTaskToMaps(epic);
         return epic.getId();
     }
 
@@ -98,12 +122,15 @@ public class InMemoryTaskManager implements TaskManager {
         }
         subtask.setId(nextId());
         Epic epic = (Epic) tasksMap.get(epicId);
+        EpicAggregate aggregate = getEpicAggregate(epic);
         epic.getSubtasksIds().add(subtask.getId());
-        tasksMap.put(subtask.getId(), subtask);
-        addTaskToPrioritizedTasks(subtask);
-        setEpicStatus(epic);
-        setEpicDuration(epic);
-        setEpicStartTime(epic);
+        putTaskToMaps(subtask);
+        try {
+            addTaskToPrioritizedTasks(subtask);
+        } finally {
+            aggregate.add(subtask);
+            updateEpicFields(epic);
+        }
         return subtask.getId();
     }
 
@@ -116,6 +143,16 @@ public class InMemoryTaskManager implements TaskManager {
         return task;
     }
 
+    @Override
+    public boolean containsTask(int id) {
+        return tasksMap.containsKey(id);
+    }
+
+    @Override
+    public Task findTaskById(int id) {
+        return tasksMap.get(id);
+    }
+
     @Override
     public List<Task> getAllKindOfTasks() {
         return tasksMap.values().stream().toList();
@@ -123,17 +160,17 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getAllTasks() {
-        return tasksMap.values().stream().filter(el -> !(el instanceof Epic) && !(el instanceof Subtask)).toList();
+        return tasks.values().stream().toList();
     }
 
     @Override
     public List<Epic> getAllEpics() {
-        return tasksMap.values().stream().filter(el -> el instanceof Epic).map(el -> (Epic) el).toList();
+        return epics.values().stream().toList();
     }
 
     @Override
     public List<Subtask> getAllSubtasks() {
-        return tasksMap.values().stream().filter(el -> el instanceof Subtask).map(el -> (Subtask) el).toList();
+        return subtasks.values().stream().toList();
     }
 
     @Override
@@ -158,16 +195,76 @@ public class InMemoryTaskManager implements TaskManager {
         return prioritizedTasks;
     }
 
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        List<Task> window = new ArrayList<>();
+        NavigableSet<Task> startingInWindow = prioritizedTasks;
+        if (from != null) {
+            Task fromBoundary = boundaryTask(from, Duration.ZERO, Integer.MIN_VALUE);
+            //scheduled tasks don't cross each other, so only the latest one starting before from can still run
+            Task earlier = prioritizedTasks.lower(fromBoundary);
+            if (earlier != null && earlier.getStartTime().plus(earlier.getDuration()).isAfter(from)) {
+                window.add(earlier);
+            }
+            startingInWindow = startingInWindow.tailSet(fromBoundary, true);
+        }
+        if (to != null) {
+            startingInWindow = startingInWindow.headSet(boundaryTask(to, Duration.ZERO, Integer.MIN_VALUE), false);
+        }
+        Iterator<Task> iterator = startingInWindow.iterator();
+        while (window.size() < limit && iterator.hasNext()) {
+            window.add(iterator.next());
+        }
+        return window;
+    }
+
+    //same rules as isCrossingTasks: a slot may touch the neighbours' bounds and a zero duration task may share
+    //its start with another one. only the tasks from notBefore to the first large enough gap are visited
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime notBefore, Duration duration) {
+        if (notBefore == null || duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("start and non-negative duration are required");
+        }
+        LocalDateTime candidate = notBefore;
+        Task boundary = boundaryTask(notBefore, Duration.ZERO, Integer.MIN_VALUE);
+        Task earlier = prioritizedTasks.lower(boundary);
+        if (earlier != null && earlier.getStartTime().plus(earlier.getDuration()).isAfter(candidate)) {
+            candidate = earlier.getStartTime().plus(earlier.getDuration());
+        }
+        for (Task task : prioritizedTasks.tailSet(boundary, true)) {
+            LocalDateTime startTime = task.getStartTime();
+            if (startTime.isBefore(candidate)
+                    || startTime.equals(candidate) && (task.getDuration().isZero() || duration.isZero())) {
+                continue;
+            }
+            if (!startTime.isBefore(candidate.plus(duration))) {
+                return candidate;
+            }
+            candidate = startTime.plus(task.getDuration());
+        }
+        return candidate;
+    }
+
     @Override
     public void removeAllTasks() {
         tasksMap.clear();
+        tasks.clear();
+        epics.clear();
+        subtasks.clear();
         historyManager.clear();
         prioritizedTasks.clear();
+        epicAggregates.clear();
     }
 
     @Override
     public void removeTaskById(int id) {
-        prioritizedTasks.remove(tasksMap.get(id));
+        removeFromPrioritizedTasks(tasksMap.get(id));
         historyManager.remove(id);
         if (tasksMap.get(id) instanceof Epic) {
             removeAllSubtasks(id);
@@ -175,12 +272,11 @@ public class InMemoryTaskManager implements TaskManager {
         if (tasksMap.get(id) instanceof Subtask) {
             Subtask subtask = (Subtask) tasksMap.get(id);
             Epic epic = (Epic) tasksMap.get(subtask.getEpicId());
+            getEpicAggregate(epic).remove(subtask);
             epic.getSubtasksIds().remove((Integer) id);
-            setEpicStatus(epic);
-            setEpicDuration(epic);
-            setEpicStartTime(epic);
+            updateEpicFields(epic);
         }
-        tasksMap.remove(id);
+        removeTaskFromMaps(id);
     }
 
     @Override
@@ -207,16 +303,15 @@ public class InMemoryTaskManager implements TaskManager {
         if (tasksMap.get(id) instanceof Epic) {
             throw new RuntimeException("can't set epic status");
         }
-        tasksMap.get(id).setStatus(status);
-        if (status == TaskStatus.DONE) {
-            prioritizedTasks.remove(tasksMap.get(id));
-        }
-        if (tasksMap.get(id) instanceof Subtask) {
-            int epicId = ((Subtask) tasksMap.get(id)).getEpicId();
-            Epic epic = (Epic) tasksMap.get(epicId);
-            setEpicStatus(epic);
-            setEpicDuration(epic);
-            setEpicStartTime(epic);
+        Task task = tasksMap.get(id);
+        Epic epic = detachFromEpicAggregate(task);
+        try {
+            task.setStatus(status);
+            if (status == TaskStatus.DONE) {
+                removeFromPrioritizedTasks(task);
+            }
+        } finally {
+            attachToEpicAggregate(task, epic);
         }
     }
 
@@ -230,18 +325,24 @@ public class InMemoryTaskManager implements TaskManager {
             throw new RuntimeException("can't set epic's start time");
         }
         LocalDateTime oldStartTime = task.getStartTime();
-        task.setStartTime(startTime);
-        if (oldStartTime == null) {
-            addTaskToPrioritizedTasks(task);
-        } else {
-            prioritizedTasks.remove(task);
-            if (isCrossingTasks(task)) {
-                task.setStartTime(oldStartTime);
-                prioritizedTasks.add(task);
-                throw new IntersectionException("task id=" + id + " is crossing existing ones because of new start time");
+        Epic epic = detachFromEpicAggregate(task);
+        try {
+            task.setStartTime(startTime);
+            if (oldStartTime == null) {
+                addTaskToPrioritizedTasks(task);
             } else {
-                prioritizedTasks.add(task);
+                prioritizedTasks.remove(task);
+                if (isCrossingTasks(task)) {
+                    task.setStartTime(oldStartTime);
+                    prioritizedTasks.add(task);
+                    throw new IntersectionException("task id=" + id +
+                            " is crossing existing ones because of new start time");
+                } else {
+                    prioritizedTasks.add(task);
+                }
             }
+        } finally {
+            attachToEpicAggregate(task, epic);
         }
     }
 
@@ -251,19 +352,24 @@ public class InMemoryTaskManager implements TaskManager {
         if (task instanceof Epic) {
             throw new RuntimeException("can't set epic's duration");
         }
-        if (task.getStartTime() == null) {
+        Epic epic = detachFromEpicAggregate(task);
+        try {
+            if (task.getStartTime() == null) {
+                task.setDuration(newDuration);
+                return;
+            }
+            Duration oldDuration = task.getDuration();
+            prioritizedTasks.remove(task);
             task.setDuration(newDuration);
-            return;
-        }
-        Duration oldDuration = task.getDuration();
-        prioritizedTasks.remove(task);
-        task.setDuration(newDuration);
-        if (isCrossingTasks(task)) {
-            task.setDuration(oldDuration);
-            prioritizedTasks.add(task);
-            throw new IntersectionException("task id=" + id + " is crossing existing ones because of new duration");
-        } else {
-            prioritizedTasks.add(task);
+            if (isCrossingTasks(task)) {
+                task.setDuration(oldDuration);
+                prioritizedTasks.add(task);
+                throw new IntersectionException("task id=" + id + " is crossing existing ones because of new duration");
+            } else {
+                prioritizedTasks.add(task);
+            }
+        } finally {
+            attachToEpicAggregate(task, epic);
         }
     }
 
@@ -274,75 +380,71 @@ public class InMemoryTaskManager implements TaskManager {
             return null;
         }
         if (task instanceof Epic) {
-            return getEpicEndTime((Epic) task);
+            return getEpicAggregate((Epic) task).getEndTime();
         }
         return task.getStartTime().plus(task.getDuration());
     }
 
     private boolean isCrossingTasks(Task task) {
-        BiPredicate<Task, Task> isCrossingForEarlierPrioritizedTask = (inputTask, prioritizedTask) ->
-                prioritizedTask.getStartTime().plus(prioritizedTask.getDuration()).isAfter(inputTask.getStartTime());
-        BiPredicate<Task, Task> isCrossingForLaterPrioritizedTask = (inputTask, prioritizedTask) ->
-                prioritizedTask.getStartTime().isBefore(inputTask.getStartTime().plus(inputTask.getDuration()));
-        BiPredicate<Task, Task> isCrossingForEqualsStartTimePrioritizedTask = (inputTask, prioritizedTask) ->
-                !inputTask.getDuration().isZero() && !prioritizedTask.getDuration().isZero();
-        return prioritizedTasks.stream().anyMatch(el -> {
-            if (el.getStartTime().isBefore(task.getStartTime())) {
-                return isCrossingForEarlierPrioritizedTask.test(task, el);
-            } else if (el.getStartTime().isAfter(task.getStartTime())) {
-                return isCrossingForLaterPrioritizedTask.test(task, el);
-            } else {
-                return isCrossingForEqualsStartTimePrioritizedTask.test(task, el);
-            }
-        });
-    }
+        LocalDateTime startTime = task.getStartTime();
+        LocalDateTime endTime = startTime.plus(task.getDuration());
 
-    private void setEpicStatus(Epic epic) {
-        List<Integer> subsIds = epic.getSubtasksIds();
-        int countNEW = 0;
-        int countDONE = 0;
-        for (Integer subId : subsIds) {
-            TaskStatus status = tasksMap.get(subId).getStatus();
-            switch (status) {
-                case NEW -> countNEW++;
-                case DONE -> countDONE++;
-            }
+        //scheduled tasks don't cross each other, so the latest one starting before startTime ends the latest
+        Task earlier = prioritizedTasks.lower(boundaryTask(startTime, Duration.ZERO, Integer.MIN_VALUE));
+        if (earlier != null && earlier.getStartTime().plus(earlier.getDuration()).isAfter(startTime)) {
+            return true;
         }
-        if (countNEW == subsIds.size()) {
-            epic.setStatus(TaskStatus.NEW);
-        } else if (countDONE == subsIds.size()) {
-            epic.setStatus(TaskStatus.DONE);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
+
+        //tasks with equal start time cross only if both have non-zero duration
+        Task lastWithSameStart = prioritizedTasks.floor(boundaryTask(startTime, MAX_DURATION, Integer.MAX_VALUE));
+        if (lastWithSameStart != null && lastWithSameStart.getStartTime().equals(startTime)
+                && !task.getDuration().isZero() && !lastWithSameStart.getDuration().isZero()) {
+            return true;
         }
+
+        Task later = prioritizedTasks.higher(boundaryTask(startTime, MAX_DURATION, Integer.MAX_VALUE));
+        return later != null && later.getStartTime().isBefore(endTime);
+    }
+
+    private Task boundaryTask(LocalDateTime startTime, Duration duration, int id) {
+        Task boundary = new Task(null, null);
+        boundary.setStartTime(startTime);
+        boundary.setDuration(duration);
+        boundary.setId(id);
+        return boundary;
+    }
+
+    private EpicAggregate getEpicAggregate(Epic epic) {
+        return epicAggregates.computeIfAbsent(epic.getId(), epicId -> {
+            EpicAggregate aggregate = new EpicAggregate();
+            epic.getSubtasksIds().forEach(subId -> aggregate.add((Subtask) tasksMap.get(subId)));
+            return aggregate;
+        });
     }
 
-    private void setEpicStartTime(Epic epic) {
-        LocalDateTime startTime = epic.getSubtasksIds().stream()
-                .map(tasksMap::get)
-                .filter(el -> el.getStatus() != TaskStatus.DONE)
-                .map(Task::getStartTime)
-                .filter(Objects::nonNull)
-                .min(Comparator.naturalOrder()).orElse(null);
-        epic.setStartTime(startTime);
+    //must be called before a subtask is changed, the returned epic is passed to attachToEpicAggregate afterwards
+    private Epic detachFromEpicAggregate(Task task) {
+        if (!(task instanceof Subtask)) {
+            return null;
+        }
+        Epic epic = (Epic) tasksMap.get(((Subtask) task).getEpicId());
+        getEpicAggregate(epic).remove((Subtask) task);
+        return epic;
     }
 
-    private void setEpicDuration(Epic epic) {
-        Duration duration = epic.getSubtasksIds().stream()
-                .map(tasksMap::get)
-                .filter(el -> el.getStatus() != TaskStatus.DONE)
-                .map(Task::getDuration)
-                .reduce(Duration::plus).orElse(Duration.ZERO);
-        epic.setDuration(duration);
+    private void attachToEpicAggregate(Task task, Epic epic) {
+        if (epic == null) {
+            return;
+        }
+        getEpicAggregate(epic).add((Subtask) task);
+        updateEpicFields(epic);
     }
 
-    private LocalDateTime getEpicEndTime(Epic epic) {
-        return epic.getSubtasksIds().stream()
-                .map(tasksMap::get)
-                .filter(el -> el.getStatus() != TaskStatus.DONE)
-                .filter(el -> el.getStartTime() != null)
-                .map(el -> el.getStartTime().plus(el.getDuration()))
-                .max(Comparator.naturalOrder()).orElse(null);
+    private void updateEpicFields(Epic epic) {
+        EpicAggregate aggregate = getEpicAggregate(epic);
+        epic.setStatus(aggregate.getStatus());
+        epic.setDuration(aggregate.getDuration());
+        epic.setStartTime(aggregate.getStartTime());
     }
 
     private void addTaskToPrioritizedTasks(Task task) {
@@ -361,17 +463,65 @@ public class InMemoryTaskManager implements TaskManager {
         }
     }
 
+    //unscheduled tasks are never in the set and can't be compared with the ones that are
+    private void removeFromPrioritizedTasks(Task task) {
+        if (task != null && task.getStartTime() != null) {
+            prioritizedTasks.remove(task);
+        }
+    }
+
     private void removeAllSubtasks(int epicId) {
         List<Integer> subtasksIds = ((Epic) tasksMap.get(epicId)).getSubtasksIds();
         subtasksIds.forEach(el -> {
             historyManager.remove(el);
-            prioritizedTasks.remove(tasksMap.get(el));
-            tasksMap.remove(el);
+            removeFromPrioritizedTasks(tasksMap.get(el));
+            removeTaskFromMaps(el);
         });
+        epicAggregates.remove(epicId);
         tasksMap.get(epicId).setDuration(Duration.ZERO);
         tasksMap.get(epicId).setStartTime(null);
     }
 
+    //the task got an id and was put to the maps, even if adding it failed afterwards
+    protected boolean isStored(Task task) {
+        return task != null && tasksMap.get(task.getId()) == task;
+    }
+
+    //puts a task restored by a saving manager as it was saved: with its id and without the crossing check.
+    //loading runs from the constructors, so it calls nothing overridable
+    protected final void putLoadedTask(Task task, boolean isPrioritized) {
+        putToMaps(task);
+        if (isPrioritized) {
+            prioritizedTasks.add(task);
+        }
+    }
+
+    protected void putTaskToMaps(Task task) {
+        putToMaps(task);
+    }
+
+    private void putToMaps(Task task) {
+        tasksMap.put(task.getId(), task);
+        if (task instanceof Epic) {
+            epics.put(task.getId(), (Epic) task);
+        } else if (task instanceof Subtask) {
+            subtasks.put(task.getId(), (Subtask) task);
+        } else {
+            tasks.put(task.getId(), task);
+        }
+    }
+
+    protected void removeTaskFromMaps(int id) {
+        Task task = tasksMap.remove(id);
+        if (task instanceof Epic) {
+            epics.remove(id);
+        } else if (task instanceof Subtask) {
+            subtasks.remove(id);
+        } else if (task != null) {
+            tasks.remove(id);
+        }
+    }
+
     private int nextId() {
         return ++id;
     }
@@ -1,11 +1,37 @@
 package com.yandex.kanban.service;
 
+import java.time.Duration;
+
 public class Managers {
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getDefault(HistoryManager historyManager) {
+        return new InMemoryTaskManager(historyManager);
+    }
+
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getConcurrent(HistoryManager historyManager) {
+        return new ConcurrentTaskManager(historyManager);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return getDefaultHistory(capacity, EvictionPolicy.LEAST_RECENTLY_VIEWED);
+    }
+
+    public static HistoryManager getDefaultHistory(int capacity, EvictionPolicy evictionPolicy) {
+        return new BoundedHistoryManager(capacity, evictionPolicy);
+    }
+
+    public static HistoryManager getDefaultHistory(int capacity, Duration window) {
+        return new BoundedHistoryManager(capacity, window);
+    }
 }
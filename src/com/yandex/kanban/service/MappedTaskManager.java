@@ -0,0 +1,476 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+import com.yandex.kanban.util.BinaryConverter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+//tasks live in fixed size slots of a memory-mapped file addressed by id, titles and descriptions are appended
+//to a heap file next to it. a change rewrites only the slots of the affected tasks, a new title or description
+//is appended and the old bytes stay in the heap as garbage
+public class MappedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final int MAGIC = 0x4B4E4D53;
+    private static final int VERSION = 1;
+    private static final String HEAP_SUFFIX = ".heap";
+    private static final int INITIAL_CAPACITY = 1024;
+    //a single mapping is limited to 2 GiB, bigger slots and heap files are mapped in 1 GiB chunks
+    private static final long HEAP_CHUNK_SIZE = 1L << 30;
+    // header: "magic;version;lastId;reserved"
+    private static final int HEADER_SIZE = 16;
+    private static final int VERSION_OFFSET = 4;
+    private static final int LAST_ID_OFFSET = 8;
+    // slot: "state;type;status;flags;epicId;startTime;duration;titleOffset;titleLength;descriptionLength;
+    // descriptionOffset;historySequence", startTime is minutes since epoch in UTC, string length -1 is null
+    private static final int SLOT_SIZE = 64;
+    private static final int DEFAULT_SLOTS_PER_CHUNK = (int) (HEAP_CHUNK_SIZE / SLOT_SIZE);
+    private static final int STATE = 0;
+    private static final int TYPE = 1;
+    private static final int STATUS = 2;
+    private static final int FLAGS = 3;
+    private static final int EPIC_ID = 4;
+    private static final int START_TIME = 8;
+    private static final int DURATION = 16;
+    private static final int TITLE_OFFSET = 24;
+    private static final int TITLE_LENGTH = 32;
+    private static final int DESCRIPTION_LENGTH = 36;
+    private static final int DESCRIPTION_OFFSET = 40;
+    private static final int HISTORY_SEQUENCE = 48;
+    private static final byte FREE_SLOT = 0;
+    private static final byte USED_SLOT = 1;
+    private static final int PRIORITIZED_FLAG = 1;
+    private static final int START_TIME_FLAG = 2;
+    private final FileChannel slotsChannel;
+    private final FileChannel heapChannel;
+    private final int slotsPerChunk;
+    private MappedByteBuffer header;
+    //slots never cross a chunk border, every chunk but the last one holds slotsPerChunk of them
+    private final List<MappedByteBuffer> slotChunks = new ArrayList<>();
+    private int capacity;
+    private long heapSize;
+    private long historySequence;
+
+    public MappedTaskManager(Path path) {
+        this(path, DEFAULT_SLOTS_PER_CHUNK);
+    }
+
+    //smaller chunks let tests cross chunk borders without gigabytes of slots, the file layout doesn't depend on them
+    MappedTaskManager(Path path, int slotsPerChunk) {
+        if (slotsPerChunk < 1 || slotsPerChunk > DEFAULT_SLOTS_PER_CHUNK) {
+            throw new IllegalArgumentException("slots per chunk must be in [1, " + DEFAULT_SLOTS_PER_CHUNK + "]");
+        }
+        this.slotsPerChunk = slotsPerChunk;
+        boolean isNewFile;
+        FileChannel openedSlots = null;
+        FileChannel openedHeap = null;
+        try {
+            openedSlots = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            openedHeap = FileChannel.open(path.resolveSibling(path.getFileName() + HEAP_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            heapSize = openedHeap.size();
+            isNewFile = openedSlots.size() == 0;
+        } catch (IOException e) {
+            closeQuietly(e, openedSlots, openedHeap);
+            throw new RuntimeException("Ошибка при чтении файла: " + e.getMessage(), e);
+        }
+        slotsChannel = openedSlots;
+        heapChannel = openedHeap;
+        try {
+            //the header is checked before mapping, mapping a foreign file would extend it
+            if (!isNewFile) {
+                checkHeader();
+            }
+            header = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            long storedSlots = Math.max(0, (slotsChannel.size() - HEADER_SIZE) / SLOT_SIZE);
+            mapSlots((int) Math.max(INITIAL_CAPACITY, Math.min(storedSlots, Integer.MAX_VALUE)));
+            if (isNewFile) {
+                header.putInt(0, MAGIC);
+                header.putInt(VERSION_OFFSET, VERSION);
+                header.putInt(LAST_ID_OFFSET, 0);
+            }
+            load();
+        } catch (Exception e) {
+            //mapped buffers can't be unmapped explicitly, they are released once they are collected
+            header = null;
+            slotChunks.clear();
+            closeQuietly(e, slotsChannel, heapChannel);
+            throw new RuntimeException("Некорректные данные в файле: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Task createTask(String title, String description) {
+        Task task = super.createTask(title, description);
+        writeTask(task);
+        return task;
+    }
+
+    @Override
+    public Epic createEpic(String title, String description) {
+        Epic epic = super.createEpic(title, description);
+        writeTask(epic);
+        return epic;
+    }
+
+    @Override
+    public Subtask createSubtask(String title, String description, int epicId) {
+        Subtask subtask = super.createSubtask(title, description, epicId);
+        writeTask(subtask);
+        writeScalars(epicId);
+        return subtask;
+    }
+
+    //epics and subtasks are written by addEpic/addSubtask that super.addTask delegates to. a task crossing
+    //another one is kept without its time, so it is written even when adding it throws
+    @Override
+    public int addTask(Task task) {
+        if (task instanceof Epic || task instanceof Subtask) {
+            return super.addTask(task);
+        }
+        try {
+            return super.addTask(task);
+        } finally {
+            if (isStored(task)) {
+                writeTask(task);
+            }
+        }
+    }
+
+    @Override
+    public int addEpic(Epic epic) {
+        int id = super.addEpic(epic);
+        if (id != -1) {
+            writeTask(epic);
+        }
+        return id;
+    }
+
+    @Override
+    public int addSubtask(Subtask subtask) {
+        try {
+            return super.addSubtask(subtask);
+        } finally {
+            if (isStored(subtask)) {
+                writeTask(subtask);
+                writeScalars(subtask.getEpicId());
+            }
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task = super.getTaskById(id);
+        if (task != null) {
+            ensureCapacity(id);
+            slotChunk(id).putLong(slotOffset(id) + HISTORY_SEQUENCE, ++historySequence);
+        }
+        return task;
+    }
+
+    @Override
+    public void removeAllTasks() {
+        super.removeAllTasks();
+        //ids past the capacity were never written
+        for (int slotId = 1; slotId <= Math.min(id, capacity); slotId++) {
+            slotChunk(slotId).put(slotOffset(slotId) + STATE, FREE_SLOT);
+        }
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        Task task = tasksMap.get(id);
+        if (task == null) {
+            super.removeTaskById(id);
+            return;
+        }
+        List<Integer> removedIds = new ArrayList<>();
+        removedIds.add(id);
+        if (task instanceof Epic) {
+            removedIds.addAll(((Epic) task).getSubtasksIds());
+        }
+        super.removeTaskById(id);
+        removedIds.forEach(el -> slotChunk(el).put(slotOffset(el) + STATE, FREE_SLOT));
+        if (task instanceof Subtask) {
+            writeScalars(((Subtask) task).getEpicId());
+        }
+    }
+
+    @Override
+    public void updateTitle(String title, int id) {
+        super.updateTitle(title, id);
+        if (tasksMap.containsKey(id)) {
+            writeString(slotChunk(id), slotOffset(id) + TITLE_OFFSET, slotOffset(id) + TITLE_LENGTH,
+                    tasksMap.get(id).getTitle());
+        }
+    }
+
+    @Override
+    public void updateDescription(String description, int id) {
+        super.updateDescription(description, id);
+        if (tasksMap.containsKey(id)) {
+            writeString(slotChunk(id), slotOffset(id) + DESCRIPTION_OFFSET, slotOffset(id) + DESCRIPTION_LENGTH,
+                    tasksMap.get(id).getDescription());
+        }
+    }
+
+    @Override
+    public void updateStatus(TaskStatus status, int id) {
+        super.updateStatus(status, id);
+        writeScalarsWithEpic(id);
+    }
+
+    @Override
+    public void updateStartTime(LocalDateTime startTime, int id) {
+        try {
+            super.updateStartTime(startTime, id);
+        } finally {
+            writeScalarsWithEpic(id);
+        }
+    }
+
+    @Override
+    public void updateDuration(Duration newDuration, int id) {
+        try {
+            super.updateDuration(newDuration, id);
+        } finally {
+            writeScalarsWithEpic(id);
+        }
+    }
+
+    //forces the mapped slots and the heap to disk, until then they are only in the page cache
+    public void flush() {
+        header.force();
+        slotChunks.forEach(MappedByteBuffer::force);
+        try {
+            heapChannel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка записи файла сохранения", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            slotsChannel.close();
+            heapChannel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка записи файла сохранения", e);
+        }
+    }
+
+    private void writeTask(Task task) {
+        int taskId = task.getId();
+        ensureCapacity(taskId);
+        MappedByteBuffer slots = slotChunk(taskId);
+        int offset = slotOffset(taskId);
+        slots.putLong(offset + HISTORY_SEQUENCE, 0);
+        writeString(slots, offset + TITLE_OFFSET, offset + TITLE_LENGTH, task.getTitle());
+        writeString(slots, offset + DESCRIPTION_OFFSET, offset + DESCRIPTION_LENGTH, task.getDescription());
+        writeScalars(taskId);
+        header.putInt(LAST_ID_OFFSET, id);
+    }
+
+    private void writeScalarsWithEpic(int id) {
+        writeScalars(id);
+        if (tasksMap.get(id) instanceof Subtask) {
+            writeScalars(((Subtask) tasksMap.get(id)).getEpicId());
+        }
+    }
+
+    private void writeScalars(int id) {
+        Task task = tasksMap.get(id);
+        if (task == null) {
+            return;
+        }
+        ensureCapacity(id);
+        MappedByteBuffer slots = slotChunk(id);
+        int offset = slotOffset(id);
+        LocalDateTime startTime = task.getStartTime();
+        boolean isPrioritized = startTime != null && prioritizedTasks.contains(task);
+        slots.put(offset + TYPE, (byte) BinaryConverter.typeToCode(task));
+        slots.put(offset + STATUS, (byte) BinaryConverter.statusToCode(task.getStatus()));
+        slots.put(offset + FLAGS, (byte) ((isPrioritized ? PRIORITIZED_FLAG : 0)
+                | (startTime != null ? START_TIME_FLAG : 0)));
+        slots.putInt(offset + EPIC_ID, task instanceof Subtask ? ((Subtask) task).getEpicId() : 0);
+        slots.putLong(offset + START_TIME, startTime == null ? 0
+                : Math.floorDiv(startTime.toEpochSecond(ZoneOffset.UTC), 60));
+        slots.putLong(offset + DURATION, task.getDuration().toMinutes());
+        slots.put(offset + STATE, USED_SLOT);
+    }
+
+    private void writeString(MappedByteBuffer slots, int offsetField, int lengthField, String value) {
+        if (value == null) {
+            slots.putInt(lengthField, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                heapChannel.write(buffer, heapSize + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка записи файла сохранения", e);
+        }
+        slots.putLong(offsetField, heapSize);
+        slots.putInt(lengthField, bytes.length);
+        heapSize += bytes.length;
+    }
+
+    //closes the channels opened before a constructor failure, close errors are attached to that failure
+    private static void closeQuietly(Exception failure, FileChannel... channels) {
+        for (FileChannel channel : channels) {
+            if (channel == null) {
+                continue;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    private void checkHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        int read = 0;
+        while (header.hasRemaining() && read != -1) {
+            read = slotsChannel.read(header, header.position());
+        }
+        if (header.position() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IllegalStateException("not a mapped save file");
+        }
+        if (header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IllegalStateException("unsupported mapped save format version " + header.getInt(VERSION_OFFSET));
+        }
+    }
+
+    private void load() throws IOException {
+        int lastId = header.getInt(LAST_ID_OFFSET);
+        List<MappedByteBuffer> heap = new ArrayList<>();
+        for (long chunkStart = 0; chunkStart < heapSize; chunkStart += HEAP_CHUNK_SIZE) {
+            heap.add(heapChannel.map(FileChannel.MapMode.READ_ONLY, chunkStart,
+                    Math.min(HEAP_CHUNK_SIZE, heapSize - chunkStart)));
+        }
+        Map<Long, Task> history = new TreeMap<>();
+        List<Subtask> loadedSubtasks = new ArrayList<>();
+        for (int slotId = 1; slotId <= Math.min(lastId, capacity); slotId++) {
+            MappedByteBuffer slots = slotChunk(slotId);
+            int offset = slotOffset(slotId);
+            if (slots.get(offset + STATE) != USED_SLOT) {
+                continue;
+            }
+            Task task = readTask(slots, offset, heap);
+            task.setId(slotId);
+            putLoadedTask(task, (slots.get(offset + FLAGS) & PRIORITIZED_FLAG) != 0);
+            long sequence = slots.getLong(offset + HISTORY_SEQUENCE);
+            if (sequence > 0) {
+                history.put(sequence, task);
+                historySequence = Math.max(historySequence, sequence);
+            }
+            if (task instanceof Subtask) {
+                loadedSubtasks.add((Subtask) task);
+            }
+        }
+        //subtasks ids are not stored in the epic slot, slots are visited in id order so the lists keep it
+        loadedSubtasks.forEach(el -> epics.get(el.getEpicId()).getSubtasksIds().add(el.getId()));
+        history.values().forEach(historyManager::add);
+        this.id = lastId;
+    }
+
+    private Task readTask(MappedByteBuffer slots, int offset, List<MappedByteBuffer> heap) {
+        String title = readString(heap, slots.getLong(offset + TITLE_OFFSET), slots.getInt(offset + TITLE_LENGTH));
+        String description = readString(heap, slots.getLong(offset + DESCRIPTION_OFFSET),
+                slots.getInt(offset + DESCRIPTION_LENGTH));
+        Task task = switch (slots.get(offset + TYPE)) {
+            case 0 -> new Task(title, description);
+            case 1 -> new Epic(title, description);
+            case 2 -> new Subtask(title, description, slots.getInt(offset + EPIC_ID));
+            default -> throw new IllegalStateException("unknown task type code " + slots.get(offset + TYPE));
+        };
+        task.setStatus(BinaryConverter.codeToStatus(slots.get(offset + STATUS)));
+        if ((slots.get(offset + FLAGS) & START_TIME_FLAG) != 0) {
+            task.setStartTime(LocalDateTime.ofEpochSecond(slots.getLong(offset + START_TIME) * 60, 0,
+                    ZoneOffset.UTC));
+        }
+        task.setDuration(Duration.ofMinutes(slots.getLong(offset + DURATION)));
+        return task;
+    }
+
+    //a string may cross the border of two heap chunks, it is copied from both then
+    private String readString(List<MappedByteBuffer> heap, long offset, int length) {
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long position = offset + copied;
+            MappedByteBuffer chunk = heap.get((int) (position / HEAP_CHUNK_SIZE));
+            int chunkOffset = (int) (position % HEAP_CHUNK_SIZE);
+            int count = Math.min(length - copied, chunk.capacity() - chunkOffset);
+            chunk.get(chunkOffset, bytes, copied, count);
+            copied += count;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void ensureCapacity(int id) {
+        if (id > capacity) {
+            grow(id);
+        }
+    }
+
+    //the capacity is doubled in long and capped at the largest id, so it can't overflow to a negative one
+    private void grow(int minCapacity) {
+        long newCapacity = capacity;
+        while (newCapacity < minCapacity) {
+            newCapacity = Math.min(newCapacity * 2, Integer.MAX_VALUE);
+        }
+        try {
+            mapSlots((int) newCapacity);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка записи файла сохранения", e);
+        }
+    }
+
+    //full chunks stay mapped as they are, only the last partial one is mapped again with its new size
+    private void mapSlots(int newCapacity) throws IOException {
+        int fullChunks = capacity / slotsPerChunk;
+        while (slotChunks.size() > fullChunks) {
+            slotChunks.removeLast();
+        }
+        for (long firstSlot = (long) fullChunks * slotsPerChunk; firstSlot < newCapacity; firstSlot += slotsPerChunk) {
+            long slotsCount = Math.min(slotsPerChunk, newCapacity - firstSlot);
+            slotChunks.add(slotsChannel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + firstSlot * SLOT_SIZE,
+                    slotsCount * SLOT_SIZE));
+        }
+        capacity = newCapacity;
+    }
+
+    private MappedByteBuffer slotChunk(int id) {
+        return slotChunks.get((id - 1) / slotsPerChunk);
+    }
+
+    //offset of the slot within its chunk, a chunk is at most 1 GiB so it fits an int
+    private int slotOffset(int id) {
+        return (int) ((long) (id - 1) % slotsPerChunk * SLOT_SIZE);
+    }
+}
@@ -0,0 +1,6 @@
+package com.yandex.kanban.service;
+
+public enum SaveMode {
+    SNAPSHOT,
+    LOG
+}
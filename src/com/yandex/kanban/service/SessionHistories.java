@@ -0,0 +1,165 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+//per-client histories keyed by a client id. a session keeps only the ids of the viewed tasks, the tasks are looked
+//up on read, so a history shows the current state of a task changed after the view. sessions live in a concurrent map, so views of different clients don't
+//share a lock: a lookup only stamps the session with its last access. a session found idle for longer than
+//idleTimeout is dropped on that lookup, the rest are dropped by a sweep run once per idleTimeout. the session count
+//is bounded approximately: when it grows past maxSessions by a slack of 1/16, one sweep evicts the least recently
+//used sessions down to maxSessions. every history is bounded and locked on its own. deleted tasks are not removed
+//from the sessions, their ids are dropped on read
+public class SessionHistories {
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    //only one thread sweeps at a time, the others go on without waiting for it
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final int historyCapacity;
+    private final long idleTimeoutMillis;
+    private final int maxSessions;
+    private final int evictionThreshold;
+    private final Clock clock;
+    private volatile long nextSweep;
+
+    public SessionHistories(int historyCapacity, Duration idleTimeout, int maxSessions) {
+        this(historyCapacity, idleTimeout, maxSessions, Clock.systemUTC());
+    }
+
+    public SessionHistories(int historyCapacity, Duration idleTimeout, int maxSessions, Clock clock) {
+        if (historyCapacity < 1 || maxSessions < 1) {
+            throw new IllegalArgumentException("history capacity and session count must be positive");
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idle timeout must be positive");
+        }
+        this.historyCapacity = historyCapacity;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.maxSessions = maxSessions;
+        this.evictionThreshold = maxSessions + maxSessions / 16;
+        this.clock = clock;
+        this.nextSweep = clock.millis() + idleTimeoutMillis;
+    }
+
+    public void add(String clientId, int taskId) {
+        Task idHolder = new Task(null, null);
+        idHolder.setId(taskId);
+        while (true) {
+            Session session = getSession(clientId, true);
+            synchronized (session) {
+                //the session can be dropped between the lookup and here, the view goes to a new one then
+                if (!session.dropped) {
+                    session.history.add(idHolder);
+                    return;
+                }
+            }
+        }
+    }
+
+    //ids that lookup finds no task for were deleted after they were viewed, they are dropped from the session
+    //on the way
+    public List<Task> getHistory(String clientId, IntFunction<Task> lookup) {
+        Session session = getSession(clientId, false);
+        if (session == null) {
+            return List.of();
+        }
+        synchronized (session) {
+            List<Task> history = session.history.getHistory();
+            List<Task> existing = new ArrayList<>(history.size());
+            for (Task idHolder : history) {
+                Task task = lookup.apply(idHolder.getId());
+                if (task != null) {
+                    existing.add(task);
+                } else {
+                    session.history.remove(idHolder.getId());
+                }
+            }
+            return existing;
+        }
+    }
+
+    public void clear() {
+        sessions.forEach(this::drop);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    private Session getSession(String clientId, boolean create) {
+        long now = clock.millis();
+        if (now >= nextSweep) {
+            sweep(now);
+        }
+        Session session = sessions.get(clientId);
+        if (session != null && now - session.lastAccess > idleTimeoutMillis) {
+            drop(clientId, session);
+            session = null;
+        }
+        if (session == null && create) {
+            session = sessions.computeIfAbsent(clientId, key -> new Session(historyCapacity, now));
+            if (sessions.size() > evictionThreshold) {
+                sweep(now);
+            }
+        }
+        if (session != null) {
+            session.lastAccess = now;
+        }
+        return session;
+    }
+
+    //drops the idle sessions, then the least recently used ones while there are more than maxSessions
+    private void sweep(long now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            nextSweep = now + idleTimeoutMillis;
+            List<Map.Entry<String, Session>> active = new ArrayList<>(sessions.size());
+            for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+                if (now - entry.getValue().lastAccess > idleTimeoutMillis) {
+                    drop(entry.getKey(), entry.getValue());
+                } else {
+                    active.add(entry);
+                }
+            }
+            int excess = active.size() - maxSessions;
+            if (excess > 0) {
+                active.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+                for (int i = 0; i < excess; i++) {
+                    drop(active.get(i).getKey(), active.get(i).getValue());
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    //only the one who removes the session drops it, a new session under the same id is left alone
+    private void drop(String clientId, Session session) {
+        if (sessions.remove(clientId, session)) {
+            synchronized (session) {
+                session.dropped = true;
+            }
+        }
+    }
+
+    private static class Session {
+        private final HistoryManager history;
+        private volatile long lastAccess;
+        private boolean dropped;
+
+        private Session(int historyCapacity, long lastAccess) {
+            this.history = new BoundedHistoryManager(historyCapacity, EvictionPolicy.LEAST_RECENTLY_VIEWED);
+            this.lastAccess = lastAccess;
+        }
+    }
+}
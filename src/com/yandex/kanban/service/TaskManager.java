@@ -25,6 +25,12 @@ public interface TaskManager {
 
     Task getTaskById(int id);
 
+    //unlike getTaskById it is not a view and doesn't get to the history
+    boolean containsTask(int id);
+
+    //the current state of the task or null, not a view either
+    Task findTaskById(int id);
+
     List<Task> getAllKindOfTasks();
 
     List<Task> getAllTasks();
@@ -37,6 +43,12 @@ public interface TaskManager {
 
     Set<Task> getPrioritizedTasks();
 
+    //scheduled tasks running in [from, to) in start order, at most limit of them. null from or to is unbounded
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+
+    //the earliest start at or after notBefore where a task of the duration would not cross scheduled tasks
+    LocalDateTime findFreeSlot(LocalDateTime notBefore, Duration duration);
+
     void removeAllTasks();
 
     void removeTaskById(int id);
@@ -53,5 +65,8 @@ public interface TaskManager {
 
     HistoryManager getHistoryManager();
 
+    //the viewed tasks, safe to read while the manager is changed if the manager itself is
+    List<Task> getHistory();
+
     LocalDateTime getEndTime(int id);
 }
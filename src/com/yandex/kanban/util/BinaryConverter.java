@@ -0,0 +1,215 @@
+package com.yandex.kanban.util;
+
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// "magic;version" header, then records "type;flags;status;id;historyManagerPosition+1;[startTime];duration;title;
+// description;[epic: count, sub ids | subtask: epicId]". ints are varints, startTime is minutes since epoch in UTC,
+// strings are varint length+1 (0 for null) and UTF-8 bytes
+public class BinaryConverter {
+    public static final int VERSION = 1;
+    private static final byte[] MAGIC = {'K', 'B', 'N', 'B'};
+    private static final int PRIORITIZED_FLAG = 1;
+    private static final int START_TIME_FLAG = 2;
+
+    public static boolean hasHeader(byte[] firstBytes) {
+        if (firstBytes.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (firstBytes[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int headerLength() {
+        return MAGIC.length;
+    }
+
+    public static void writeHeader(ByteArrayOutputStream out) {
+        out.writeBytes(MAGIC);
+        writeVarLong(out, VERSION);
+    }
+
+    public static void writeRecord(ByteArrayOutputStream out, Task task, int historyManagerPosition,
+                                   boolean isInPrioritizedTasks) {
+        LocalDateTime startTime = task.getStartTime();
+        out.write(typeToCode(task));
+        out.write((isInPrioritizedTasks ? PRIORITIZED_FLAG : 0) | (startTime != null ? START_TIME_FLAG : 0));
+        out.write(statusToCode(task.getStatus()));
+        writeVarLong(out, task.getId());
+        writeVarLong(out, historyManagerPosition + 1);
+        if (startTime != null) {
+            writeVarLong(out, zigZag(Math.floorDiv(startTime.toEpochSecond(ZoneOffset.UTC), 60)));
+        }
+        writeVarLong(out, zigZag(task.getDuration().toMinutes()));
+        writeString(out, task.getTitle());
+        writeString(out, task.getDescription());
+        if (task instanceof Epic) {
+            List<Integer> subtasksIds = ((Epic) task).getSubtasksIds();
+            writeVarLong(out, subtasksIds.size());
+            for (int subId : subtasksIds) {
+                writeVarLong(out, subId);
+            }
+        } else if (task instanceof Subtask) {
+            writeVarLong(out, ((Subtask) task).getEpicId());
+        }
+    }
+
+    public static List<TaskRecord> readRecords(ByteBuffer buffer) {
+        List<TaskRecord> records = new ArrayList<>();
+        if (!buffer.hasRemaining()) {
+            return records;
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!hasHeader(magic)) {
+            throw new IllegalStateException("not a binary save file");
+        }
+        long version = readVarLong(buffer);
+        if (version != VERSION) {
+            throw new IllegalStateException("unsupported binary save format version " + version);
+        }
+        while (buffer.hasRemaining()) {
+            records.add(readRecord(buffer));
+        }
+        return records;
+    }
+
+    private static TaskRecord readRecord(ByteBuffer buffer) {
+        int type = buffer.get();
+        int flags = buffer.get();
+        TaskStatus status = codeToStatus(buffer.get());
+        int id = (int) readVarLong(buffer);
+        int historyManagerPosition = (int) readVarLong(buffer) - 1;
+        LocalDateTime startTime = null;
+        if ((flags & START_TIME_FLAG) != 0) {
+            startTime = LocalDateTime.ofEpochSecond(unZigZag(readVarLong(buffer)) * 60, 0, ZoneOffset.UTC);
+        }
+        Duration duration = Duration.ofMinutes(unZigZag(readVarLong(buffer)));
+        String title = readString(buffer);
+        String description = readString(buffer);
+
+        Task task;
+        switch (type) {
+            case 0 -> task = new Task(title, description);
+            case 1 -> {
+                Epic epic = new Epic(title, description);
+                int count = (int) readVarLong(buffer);
+                List<Integer> subIds = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    subIds.add((int) readVarLong(buffer));
+                }
+                epic.setSubtasksIds(subIds);
+                task = epic;
+            }
+            case 2 -> {
+                Subtask subtask = new Subtask(title, description);
+                subtask.setEpicId((int) readVarLong(buffer));
+                task = subtask;
+            }
+            default -> throw new IllegalStateException("unknown task type code " + type);
+        }
+        task.setId(id);
+        task.setStatus(status);
+        task.setStartTime(startTime);
+        task.setDuration(duration);
+        return new TaskRecord(task, historyManagerPosition, (flags & PRIORITIZED_FLAG) != 0);
+    }
+
+    //codes are part of the format, so they do not follow enum ordinals
+    public static int typeToCode(Task task) {
+        if (task instanceof Epic) {
+            return 1;
+        } else if (task instanceof Subtask) {
+            return 2;
+        }
+        return 0;
+    }
+
+    public static int statusToCode(TaskStatus status) {
+        return switch (status) {
+            case NEW -> 0;
+            case IN_PROGRESS -> 1;
+            case DONE -> 2;
+        };
+    }
+
+    public static TaskStatus codeToStatus(int code) {
+        return switch (code) {
+            case 0 -> TaskStatus.NEW;
+            case 1 -> TaskStatus.IN_PROGRESS;
+            case 2 -> TaskStatus.DONE;
+            default -> throw new IllegalStateException("unknown task status code " + code);
+        };
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer) - 1;
+        if (length == -1) {
+            return null;
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -11,104 +11,203 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
+// "id;type;title;description;status;startTime;duration;historyManagerPosition;isInPrioritizedTasks",
+// epics and subtasks have "[sub, ids]" or "epicID" before historyManagerPosition. startTime is "dd-MM-yyyy HH:mm"
 public class Converter {
-    private static final String TASK_FORMAT = "%d;%s;%s;%s;%s;%s;%d;%d;%b"; // "id;type;title;description;status;startTime;duration;historyManagerPosition;isInPrioritizedTasks"
-    private static final String EPIC_FORMAT = "%d;%s;%s;%s;%s;%s;%d;%s;%d;%b"; // "id;type;title;description;status;startTime;duration;[sub,ids];historyManagerPosition;isInPrioritizedTasks"
-    private static final String SUBTASK_FORMAT = "%d;%s;%s;%s;%s;%s;%d;%d;%d;%b"; // "id;type;title;description;status;startTime;duration;epicID;historyManagerPosition;isInPrioritizedTasks(always false)"
+    private static final char SEPARATOR = ';';
+    private static final String NULL = "null";
     private static final DateTimeFormatter START_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+    private static final int START_TIME_LENGTH = "dd-MM-yyyy HH:mm".length();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
 
     public static String taskToString(Task task, int historyManagerPosition, boolean isInPrioritizedTasks) {
-        if (task instanceof Epic) {
-            return epicToString((Epic) task, historyManagerPosition);
-        } else if (task instanceof Subtask) {
-            return subtaskToString((Subtask) task, historyManagerPosition, isInPrioritizedTasks);
-        } else {
-            return String.format(TASK_FORMAT, task.getId(), TaskTypes.TASK, task.getTitle(), task.getDescription(),
-                    task.getStatus(), formatStartTime(task.getStartTime()), task.getDuration().toMinutes(),
-                    historyManagerPosition, isInPrioritizedTasks);
+        return appendTask(new StringBuilder(64), task, historyManagerPosition, isInPrioritizedTasks).toString();
+    }
+
+    //writes the line into the given builder, so a whole file can be encoded into one reused buffer
+    public static StringBuilder appendTask(StringBuilder builder, Task task, int historyManagerPosition,
+                                           boolean isInPrioritizedTasks) {
+        TaskTypes type = task.getType();
+        builder.append(task.getId()).append(SEPARATOR)
+                .append(type).append(SEPARATOR)
+                .append(task.getTitle()).append(SEPARATOR)
+                .append(task.getDescription()).append(SEPARATOR)
+                .append(task.getStatus()).append(SEPARATOR);
+        appendStartTime(builder, task.getStartTime());
+        builder.append(SEPARATOR).append(task.getDuration().toMinutes()).append(SEPARATOR);
+        if (type == TaskTypes.EPIC) {
+            appendSubtasksIds(builder, ((Epic) task).getSubtasksIds());
+            builder.append(SEPARATOR);
+            //epics are never in prioritized tasks
+            isInPrioritizedTasks = false;
+        } else if (type == TaskTypes.SUBTASK) {
+            builder.append(((Subtask) task).getEpicId()).append(SEPARATOR);
         }
+        return builder.append(historyManagerPosition).append(SEPARATOR).append(isInPrioritizedTasks);
     }
 
     public static Task stringToTask(String value) {
-        String[] parts = value.split(";");
-
-        int id = Integer.parseInt(parts[0]);
-        String type = parts[1];
-        String title = parts[2];
-        String description = parts[3];
-        TaskStatus status = TaskStatus.valueOf(parts[4]);
-        LocalDateTime startTime = formStringToDateTime(parts[5]);
-        Duration duration = Duration.ofMinutes(Long.parseLong(parts[6]));
-        return switch (type) {
-            case "TASK" -> buildTask(title, description, id, status, startTime, duration);
-            case "SUBTASK" -> buildSubtask(title, description, id, status, startTime, duration, parts[7]);
-            case "EPIC" -> buildEpic(title, description, id, status, startTime, duration, parts[7]);
-            default -> null;
-        };
+        return stringToRecord(value).getTask();
     }
 
-    private static Task buildTask(String title, String description, int id, TaskStatus status, LocalDateTime startTime,
-                                  Duration duration) {
-        Task task = new Task(title, description);
+    //the line is scanned once and gives the task together with its saved history position and priority flag
+    public static TaskRecord stringToRecord(String value) {
+        int lastSeparator = value.lastIndexOf(SEPARATOR);
+        int historySeparator = value.lastIndexOf(SEPARATOR, lastSeparator - 1);
+        int historyManagerPosition = Integer.parseInt(value, historySeparator + 1, lastSeparator, 10);
+        boolean isInPrioritizedTasks = value.regionMatches(lastSeparator + 1, "true", 0, 4)
+                && value.length() == lastSeparator + 5;
+        return new TaskRecord(parseTask(value), historyManagerPosition, isInPrioritizedTasks);
+    }
+
+    private static Task parseTask(String value) {
+        int start = 0;
+        int end = value.indexOf(SEPARATOR);
+        int id = Integer.parseInt(value, start, end, 10);
+
+        start = end + 1;
+        end = value.indexOf(SEPARATOR, start);
+        Task task;
+        if (isField(value, start, end, "TASK")) {
+            task = new Task(null, null);
+        } else if (isField(value, start, end, "EPIC")) {
+            task = new Epic(null, null);
+        } else if (isField(value, start, end, "SUBTASK")) {
+            task = new Subtask(null, null);
+        } else {
+            return null;
+        }
+
+        start = end + 1;
+        end = value.indexOf(SEPARATOR, start);
+        task.setTitle(value.substring(start, end));
+
+        start = end + 1;
+        end = value.indexOf(SEPARATOR, start);
+        task.setDescription(value.substring(start, end));
+
+        start = end + 1;
+        end = value.indexOf(SEPARATOR, start);
+        task.setStatus(parseStatus(value, start, end));
+
+        start = end + 1;
+        end = value.indexOf(SEPARATOR, start);
+        task.setStartTime(parseStartTime(value, start, end));
+
+        start = end + 1;
+        end = value.indexOf(SEPARATOR, start);
+        task.setDuration(Duration.ofMinutes(Long.parseLong(value, start, end, 10)));
         task.setId(id);
-        task.setStatus(status);
-        task.setStartTime(startTime);
-        task.setDuration(duration);
+
+        start = end + 1;
+        end = value.indexOf(SEPARATOR, start);
+        if (task instanceof Epic) {
+            ((Epic) task).setSubtasksIds(parseSubtasksIds(value, start, end));
+        } else if (task instanceof Subtask) {
+            ((Subtask) task).setEpicId(Integer.parseInt(value, start, end, 10));
+        }
         return task;
     }
 
-    private static Task buildSubtask(String title, String description, int id, TaskStatus status,
-                                     LocalDateTime startTime, Duration duration, String epicID) {
-        Subtask subtask = new Subtask(title, description);
-        subtask.setId(id);
-        subtask.setStatus(status);
-        subtask.setStartTime(startTime);
-        subtask.setDuration(duration);
-        subtask.setEpicId(Integer.parseInt(epicID));
-        return subtask;
+    private static boolean isField(String value, int start, int end, String field) {
+        return end - start == field.length() && value.regionMatches(start, field, 0, field.length());
     }
 
-    private static Task buildEpic(String title, String description, int id, TaskStatus status, LocalDateTime startTime,
-                                  Duration duration, String subs) {
-        Epic epic = new Epic(title, description);
-        epic.setId(id);
-        epic.setStatus(status);
-        epic.setStartTime(startTime);
-        epic.setDuration(duration);
-        List<Integer> subIds = new ArrayList<>();
-        for (String subId : subs.replaceAll("\\]|\\[", "").split(", ")) {
-            subIds.add(Integer.parseInt(subId));
+    private static TaskStatus parseStatus(String value, int start, int end) {
+        for (TaskStatus status : STATUSES) {
+            if (isField(value, start, end, status.name())) {
+                return status;
+            }
         }
-        epic.setSubtasksIds(subIds);
-        return epic;
+        throw new IllegalArgumentException("unknown task status " + value.substring(start, end));
     }
 
+    private static void appendSubtasksIds(StringBuilder builder, List<Integer> subtasksIds) {
+        if (subtasksIds == null) {
+            builder.append(NULL);
+            return;
+        }
+        builder.append('[');
+        for (int i = 0; i < subtasksIds.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(subtasksIds.get(i));
+        }
+        builder.append(']');
+    }
 
-    private static String subtaskToString(Subtask subtask, int historyManagerPosition, boolean isInPrioritizedTasks) {
-        return String.format(SUBTASK_FORMAT, subtask.getId(), TaskTypes.SUBTASK, subtask.getTitle(),
-                subtask.getDescription(), subtask.getStatus(), formatStartTime(subtask.getStartTime()),
-                subtask.getDuration().toMinutes(), subtask.getEpicId(), historyManagerPosition, isInPrioritizedTasks);
+    // "[1, 2, 3]"
+    private static List<Integer> parseSubtasksIds(String value, int start, int end) {
+        List<Integer> subIds = new ArrayList<>();
+        int idStart = start + 1;
+        int listEnd = end - 1;
+        while (idStart < listEnd) {
+            int idEnd = value.indexOf(',', idStart);
+            if (idEnd == -1 || idEnd > listEnd) {
+                idEnd = listEnd;
+            }
+            subIds.add(Integer.parseInt(value, idStart, idEnd, 10));
+            idStart = idEnd + 2;
+        }
+        return subIds;
     }
 
-    private static String epicToString(Epic epic, int historyManagerPosition) {
-        return String.format(EPIC_FORMAT, epic.getId(), TaskTypes.EPIC, epic.getTitle(), epic.getDescription(),
-                epic.getStatus(), formatStartTime(epic.getStartTime()), epic.getDuration().toMinutes(),
-                epic.getSubtasksIds(), historyManagerPosition, false);
+    //the pattern is written by hand for four-digit years, the rest goes through the formatter
+    private static void appendStartTime(StringBuilder builder, LocalDateTime startTime) {
+        if (startTime == null) {
+            builder.append(NULL);
+            return;
+        }
+        int year = startTime.getYear();
+        if (year < 1 || year > 9999) {
+            builder.append(startTime.format(START_TIME_FORMATTER));
+            return;
+        }
+        appendPadded(builder, startTime.getDayOfMonth(), 2).append('-');
+        appendPadded(builder, startTime.getMonthValue(), 2).append('-');
+        appendPadded(builder, year, 4).append(' ');
+        appendPadded(builder, startTime.getHour(), 2).append(':');
+        appendPadded(builder, startTime.getMinute(), 2);
     }
 
-    private static String formatStartTime(LocalDateTime startTime) {
-        try {
-            return startTime.format(START_TIME_FORMATTER);
-        } catch (NullPointerException e) {
-            return "null";
+    private static StringBuilder appendPadded(StringBuilder builder, int value, int width) {
+        for (int limit = 10; width > 1; width--, limit *= 10) {
+            if (value < limit) {
+                builder.append('0');
+            }
         }
+        return builder.append(value);
     }
 
-    private static LocalDateTime formStringToDateTime(String formatTime) {
-        if (formatTime.equals("null")) {
+    private static LocalDateTime parseStartTime(String value, int start, int end) {
+        if (isField(value, start, end, NULL)) {
             return null;
-        } else {
-            return LocalDateTime.parse(formatTime, START_TIME_FORMATTER);
         }
+        if (end - start == START_TIME_LENGTH && value.charAt(start + 2) == '-' && value.charAt(start + 5) == '-'
+                && value.charAt(start + 10) == ' ' && value.charAt(start + 13) == ':') {
+            int day = parseDigits(value, start, 2);
+            int month = parseDigits(value, start + 3, 2);
+            int year = parseDigits(value, start + 6, 4);
+            int hour = parseDigits(value, start + 11, 2);
+            int minute = parseDigits(value, start + 14, 2);
+            if (day >= 0 && month >= 0 && year >= 0 && hour >= 0 && minute >= 0) {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            }
+        }
+        return LocalDateTime.parse(value.substring(start, end), START_TIME_FORMATTER);
+    }
+
+    //returns -1 if there is not a digit in the range
+    private static int parseDigits(String value, int start, int length) {
+        int result = 0;
+        for (int i = start; i < start + length; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
     }
 }
@@ -0,0 +1,76 @@
+package com.yandex.kanban.util;
+
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class EpicAggregate {
+    private int subtasksCount;
+    private int newCount;
+    private int doneCount;
+    private Duration duration = Duration.ZERO;
+    private final NavigableMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final NavigableMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+
+    public void add(Subtask subtask) {
+        subtasksCount++;
+        switch (subtask.getStatus()) {
+            case NEW -> newCount++;
+            case DONE -> doneCount++;
+        }
+        if (subtask.getStatus() == TaskStatus.DONE) {
+            return;
+        }
+        duration = duration.plus(subtask.getDuration());
+        if (subtask.getStartTime() != null) {
+            startTimes.merge(subtask.getStartTime(), 1, Integer::sum);
+            endTimes.merge(subtask.getStartTime().plus(subtask.getDuration()), 1, Integer::sum);
+        }
+    }
+
+    public void remove(Subtask subtask) {
+        subtasksCount--;
+        switch (subtask.getStatus()) {
+            case NEW -> newCount--;
+            case DONE -> doneCount--;
+        }
+        if (subtask.getStatus() == TaskStatus.DONE) {
+            return;
+        }
+        duration = duration.minus(subtask.getDuration());
+        if (subtask.getStartTime() != null) {
+            decrement(startTimes, subtask.getStartTime());
+            decrement(endTimes, subtask.getStartTime().plus(subtask.getDuration()));
+        }
+    }
+
+    public TaskStatus getStatus() {
+        if (newCount == subtasksCount) {
+            return TaskStatus.NEW;
+        } else if (doneCount == subtasksCount) {
+            return TaskStatus.DONE;
+        } else {
+            return TaskStatus.IN_PROGRESS;
+        }
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
+
+    private void decrement(NavigableMap<LocalDateTime, Integer> counts, LocalDateTime key) {
+        counts.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+    }
+}
@@ -3,6 +3,7 @@ package com.yandex.kanban.util;
 import com.google.gson.Gson;
 import com.yandex.kanban.adapters.DurationAdapter;
 import com.yandex.kanban.adapters.LocalDateTimeAdapter;
+import com.yandex.kanban.adapters.TaskAdapter;
 import com.yandex.kanban.model.Task;
 
 import java.time.Duration;
@@ -15,7 +16,7 @@ public class GsonHolder {
             .serializeNulls()
             .registerTypeAdapter(Duration.class, new DurationAdapter())
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-            .registerTypeAdapter(Task.class, new TaskDeserializer())
+            .registerTypeHierarchyAdapter(Task.class, new TaskAdapter())
             .create();
 
     private GsonHolder() {
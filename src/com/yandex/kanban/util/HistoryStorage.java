@@ -3,6 +3,7 @@ package com.yandex.kanban.util;
 import com.yandex.kanban.model.Task;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,106 +12,89 @@ public class HistoryStorage<T extends Task> {
     private Node<T> head;
     private Node<T> tail;
     private final Map<Integer, Node<T>> nodeMap = new HashMap<>();
+    //bumped by every change of the list, the cached snapshot is valid while it matches
+    private int modCount;
+    private List<T> snapshot;
+    private int snapshotModCount = -1;
 
+    //a viewed task is unlinked and linked again as the tail
     public void linkLast(T task) {
         if (task == null) {
             return;
         }
-
+        remove(task.getId());
+        modCount++;
         Node<T> newNode = new Node<>(task);
-
-        //in case of empty storage
-        if (head == null) {
+        if (tail == null) {
             head = newNode;
-            nodeMap.put(head.task.getId(), newNode);
-            return;
+        } else {
+            tail.next = newNode;
+            newNode.prev = tail;
         }
+        tail = newNode;
+        nodeMap.put(task.getId(), newNode);
+    }
 
-        //in case of 1 element storage
-        if (tail == null) {
-            if (nodeMap.containsKey(task.getId())) {
-                head = newNode;
-                nodeMap.put(head.task.getId(), head);
-            } else {
-                tail = newNode;
-                head.next = tail;
-                tail.prev = head;
-                nodeMap.put(tail.task.getId(), tail);
-            }
-            return;
+    //unmodifiable and shared between calls until the history changes
+    public List<T> getTasks() {
+        if (snapshot != null && snapshotModCount == modCount) {
+            return snapshot;
         }
-
-        //common case
-        if (nodeMap.containsKey(task.getId())) {
-            Node<T> oldNode = nodeMap.get(task.getId());
-            nodeMap.put(task.getId(), newNode);
-            if (oldNode == head) {
-                head = oldNode.next;
-                head.prev = null;
-            } else if (oldNode == tail) {
-                tail = newNode;
-                tail.prev = oldNode.prev;
-                oldNode.prev.next = tail;
-                return;
-            } else {
-                oldNode.next.prev = oldNode.prev;
-                oldNode.prev.next = oldNode.next;
-            }
+        List<T> tasks = new ArrayList<>(nodeMap.size());
+        for (Node<T> node = head; node != null; node = node.next) {
+            tasks.add(node.task);
         }
+        snapshot = Collections.unmodifiableList(tasks);
+        snapshotModCount = modCount;
+        return snapshot;
+    }
 
-        Node<T> oldTail = tail;
-        tail = newNode;
-        oldTail.next = tail;
-        tail.prev = oldTail;
-        nodeMap.put(task.getId(), newNode);
+    public T getFirst() {
+        return head == null ? null : head.task;
+    }
 
+    public boolean contains(int id) {
+        return nodeMap.containsKey(id);
     }
 
-    public List<T> getTasks() {
-        List<T> tasks = new ArrayList<>();
-        if (head == null) {
-            return tasks;
-        }
-        Node<T> node = head;
-        T task = node.task;
-        while (task != null) {
-            tasks.add(task);
-            node = node.next;
-            if (node == null) {
-                break;
-            } else {
-                task = node.task;
-            }
+    public int size() {
+        return nodeMap.size();
+    }
+
+    public int getModCount() {
+        return modCount;
+    }
+
+    //id -> position in history, in one walk from the head
+    public Map<Integer, Integer> getPositions() {
+        Map<Integer, Integer> positions = new HashMap<>(nodeMap.size() * 4 / 3 + 1);
+        int position = 0;
+        for (Node<T> node = head; node != null; node = node.next) {
+            positions.put(node.task.getId(), position++);
         }
-        return tasks;
+        return positions;
     }
 
     public void remove(int id) {
-        if (!nodeMap.containsKey(id)) {
+        Node<T> node = nodeMap.remove(id);
+        if (node == null) {
             return;
         }
-        Node<T> node = nodeMap.get(id);
-        nodeMap.remove(id);
-        if (node == head) {
-            if (head.next == null) {
-                head = null;
-            } else {
-                head = node.next;
-                head.prev = null;
-            }
-            return;
-        } else if (node == tail) {
+        modCount++;
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
             tail = node.prev;
-            tail.next = null;
-            return;
+        } else {
+            node.next.prev = node.prev;
         }
-        Node<T> prevNode = node.prev;
-        Node<T> nextNode = node.next;
-        prevNode.next = nextNode;
-        nextNode.prev = prevNode;
     }
 
     public void clear() {
+        modCount++;
         head = null;
         tail = null;
         nodeMap.clear();
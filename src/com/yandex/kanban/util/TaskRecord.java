@@ -0,0 +1,27 @@
+package com.yandex.kanban.util;
+
+import com.yandex.kanban.model.Task;
+
+public class TaskRecord {
+    private final Task task;
+    private final int historyManagerPosition;
+    private final boolean isInPrioritizedTasks;
+
+    public TaskRecord(Task task, int historyManagerPosition, boolean isInPrioritizedTasks) {
+        this.task = task;
+        this.historyManagerPosition = historyManagerPosition;
+        this.isInPrioritizedTasks = isInPrioritizedTasks;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public int getHistoryManagerPosition() {
+        return historyManagerPosition;
+    }
+
+    public boolean isInPrioritizedTasks() {
+        return isInPrioritizedTasks;
+    }
+}
@@ -0,0 +1,71 @@
+package com.yandex.kanban.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+import com.yandex.kanban.util.GsonHolder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskAdapterTest {
+    private static final Gson gson = GsonHolder.getGson();
+
+    @Test
+    void roundTripKeepsTypesAndFields() {
+        Task task = new Task("Task", "desc");
+        task.setId(1);
+        task.setStartTime(LocalDateTime.of(2000, 1, 1, 10, 0));
+        task.setDuration(Duration.ofMinutes(15));
+        Epic epic = new Epic("Epic", "desc");
+        epic.setId(2);
+        epic.setSubtasksIds(new ArrayList<>(List.of(3)));
+        Subtask subtask = new Subtask("Sub", "desc", 2);
+        subtask.setId(3);
+        subtask.setStatus(TaskStatus.DONE);
+
+        String json = gson.toJson(List.of(task, epic, subtask));
+        List<Task> tasks = gson.fromJson(json, new TypeToken<List<Task>>() {
+        }.getType());
+
+        assertEquals(task.toString(), tasks.get(0).toString(), "Задача не совпадает после десериализации");
+        assertEquals(epic.toString(), tasks.get(1).toString(), "Эпик не совпадает после десериализации");
+        assertEquals(subtask.toString(), tasks.get(2).toString(), "Подзадача не совпадает после десериализации");
+        assertInstanceOf(Epic.class, tasks.get(1), "Неверный тип после десериализации");
+        assertInstanceOf(Subtask.class, tasks.get(2), "Неверный тип после десериализации");
+    }
+
+    @Test
+    void fieldOrderAndNulls() {
+        Subtask subtask = new Subtask("Sub", null, 2);
+        subtask.setId(3);
+        String json = gson.toJson(subtask).replaceAll("\\s", "");
+        assertEquals("{\"epicId\":2,\"type\":\"SUBTASK\",\"title\":\"Sub\",\"description\":null,\"id\":3," +
+                "\"status\":\"NEW\",\"startTime\":null,\"duration\":\"PT0S\"}", json, "Изменился формат JSON");
+    }
+
+    @Test
+    void typeAfterSubclassFields() {
+        Task task = gson.fromJson("{\"subtasksIds\":[5,6],\"unknown\":{\"a\":1},\"type\":\"EPIC\",\"title\":\"E\"}",
+                Task.class);
+        assertInstanceOf(Epic.class, task, "Неверный тип после десериализации");
+        assertEquals(List.of(5, 6), ((Epic) task).getSubtasksIds(), "Не прочитаны id подзадач");
+    }
+
+    @Test
+    void wrongType() {
+        assertThrows(JsonParseException.class, () -> gson.fromJson("{\"title\":\"T\"}", Task.class),
+                "Прочитана задача без типа");
+        assertThrows(JsonParseException.class, () -> gson.fromJson("{\"type\":\"BUG\"}", Task.class),
+                "Прочитана задача неизвестного типа");
+    }
+}
@@ -0,0 +1,77 @@
+package com.yandex.kanban.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.yandex.kanban.service.Managers;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseHttpHandlerTest {
+    private static final int PORT = 8082;
+
+    @Test
+    void serializationFailureDoesNotSendSecondStatus() throws IOException, InterruptedException {
+        AtomicReference<Exception> escaped = new AtomicReference<>();
+        BaseHttpHandler handler = new BaseHttpHandler(Managers.getDefault()) {
+            @Override
+            public void handle(HttpExchange exchange) {
+                try (exchange) {
+                    //gson refuses NaN, the failure happens after the status is sent
+                    sendJson(exchange, List.of(1.0, Double.NaN));
+                } catch (Exception e) {
+                    escaped.set(e);
+                }
+            }
+        };
+        List<LogRecord> logged = new CopyOnWriteArrayList<>();
+        Logger logger = Logger.getLogger(BaseHttpHandler.class.getName());
+        Handler logHandler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                logged.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        logger.addHandler(logHandler);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", PORT), 0);
+        server.createContext("/json", handler);
+        server.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + PORT + "/json"))
+                    .GET()
+                    .build();
+            HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            //a cut off body may also be reported as a broken response
+        } finally {
+            server.stop(0);
+            logger.removeHandler(logHandler);
+        }
+        assertNull(escaped.get(), "Ошибка сериализации передана обработчику после отправки статуса");
+        assertEquals(1, logged.size(), "Ошибка сериализации не записана в лог");
+        assertEquals(Level.WARNING, logged.getFirst().getLevel(), "Неверный уровень записи в лог");
+    }
+}
@@ -0,0 +1,30 @@
+package com.yandex.kanban.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTest {
+
+    @Test
+    void matchWithoutId() {
+        Route route = new Route("/tasks");
+        assertTrue(route.matches("/tasks"), "Путь не распознан");
+        assertFalse(route.matches("/tasks/"), "Распознан путь с лишним слешем");
+        assertFalse(route.matches("/tasks/1"), "Распознан путь с id");
+    }
+
+    @Test
+    void matchWithId() {
+        Route route = new Route("/epics/{id}/subtasks");
+        assertEquals(15, route.match("/epics/15/subtasks"), "Неверно извлечен id");
+        assertEquals(Route.NOT_MATCHED, route.match("/epics/15"), "Распознан путь без суффикса");
+        assertEquals(Route.NOT_MATCHED, route.match("/epics//subtasks"), "Распознан путь без id");
+        assertEquals(Route.NOT_MATCHED, route.match("/epics/05/subtasks"), "Распознан id с ведущим нулем");
+        assertEquals(Route.NOT_MATCHED, route.match("/epics/1a/subtasks"), "Распознан id с буквой");
+        assertEquals(Integer.MAX_VALUE, route.match("/epics/2147483647/subtasks"), "Неверно извлечен id");
+        assertEquals(Route.WRONG_ID, route.match("/epics/2147483648/subtasks"), "Не распознано переполнение id");
+        assertEquals(Route.WRONG_ID, route.match("/epics/99999999999999999999999/subtasks"),
+                "Не распознано переполнение id");
+    }
+}
@@ -1,6 +1,8 @@
 package com.yandex.kanban.server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 import com.yandex.kanban.model.Epic;
 import com.yandex.kanban.model.Subtask;
@@ -76,7 +78,7 @@ public class HttpTaskServerHistoryAndPrioritizedTest {
         assertEquals(200, response.statusCode());
 
         List<Task> returnedHistory = gson.fromJson(response.body(), new TypeToken<List<Task>>(){}.getType());
-        List<Task> history = manager.getHistoryManager().getHistory();
+        List<Task> history = manager.getHistory();
 
         assertEquals(history.size(), returnedHistory.size(), "Не совпадабт размеры истории");
         for (int i = 0; i < history.size(); i++) {
@@ -84,6 +86,29 @@ public class HttpTaskServerHistoryAndPrioritizedTest {
         }
     }
 
+    @Test
+    void getSessionHistory() throws IOException, InterruptedException {
+        Task deleted = manager.createTask("deleted", "desc");
+        assertEquals(200, client.send(clientRequest("/tasks/1", "first").GET().build(), handler).statusCode());
+        client.send(clientRequest("/tasks/" + deleted.getId(), "first").GET().build(), handler);
+        client.send(clientRequest("/subtasks/4", "second").GET().build(), handler);
+        client.send(clientRequest("/tasks/" + deleted.getId(), "second").DELETE().build(), handler);
+
+        List<Task> firstHistory = gson.fromJson(client.send(clientRequest("/history", "first").GET().build(),
+                handler).body(), new TypeToken<List<Task>>(){}.getType());
+        List<Task> secondHistory = gson.fromJson(client.send(clientRequest("/history", "second").GET().build(),
+                handler).body(), new TypeToken<List<Task>>(){}.getType());
+        assertEquals(List.of(1), firstHistory.stream().map(Task::getId).toList(),
+                "Неверная история клиента или удаленная задача осталась в ней");
+        assertEquals(List.of(4), secondHistory.stream().map(Task::getId).toList(), "Истории клиентов смешались");
+    }
+
+    private static HttpRequest.Builder clientRequest(String path, String clientId) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("X-Client-Id", clientId);
+    }
+
     @Test
     void getPrioritized() throws IOException, InterruptedException {
         request = HttpRequest.newBuilder()
@@ -104,6 +129,56 @@ public class HttpTaskServerHistoryAndPrioritizedTest {
         }
     }
 
+    @Test
+    void getPrioritizedWindow() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(uriPrioritized + "?from=2000-01-01T00:15&to=2000-01-01T02:00&limit=10"))
+                .GET()
+                .build(), handler);
+        assertEquals(200, response.statusCode());
+        List<Task> window = gson.fromJson(response.body(), new TypeToken<List<Task>>(){}.getType());
+        assertEquals(List.of(1, 2), window.stream().map(Task::getId).toList(), "Неверные задачи в окне");
+
+        response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(uriPrioritized + "?from=2000-01-01T00:15&limit=1"))
+                .GET()
+                .build(), handler);
+        window = gson.fromJson(response.body(), new TypeToken<List<Task>>(){}.getType());
+        assertEquals(List.of(1), window.stream().map(Task::getId).toList(), "Не применено ограничение количества");
+
+        for (String query : List.of("?from=yesterday", "?limit=0", "?limit=many",
+                "?from=2000-01-02T00:00&to=2000-01-01T00:00")) {
+            response = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(uriPrioritized + query))
+                    .GET()
+                    .build(), handler);
+            assertEquals(400, response.statusCode(), "Принят неверный запрос " + query);
+        }
+    }
+
+    @Test
+    void getFreeSlot() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(uriPrioritized + "/free?from=2000-01-01T00:00&duration=PT40M"))
+                .GET()
+                .build(), handler);
+        assertEquals(200, response.statusCode());
+        JsonObject slot = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(gson.toJson(LocalDateTime.of(2000, 1, 1, 5, 20)), gson.toJson(slot.get("startTime")),
+                "Неверное начало свободного слота");
+        assertEquals(gson.toJson(LocalDateTime.of(2000, 1, 1, 6, 0)), gson.toJson(slot.get("endTime")),
+                "Неверный конец свободного слота");
+
+        for (String query : List.of("", "?from=2000-01-01T00:00", "?from=now&duration=PT40M",
+                "?from=2000-01-01T00:00&duration=-PT1M")) {
+            response = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(uriPrioritized + "/free" + query))
+                    .GET()
+                    .build(), handler);
+            assertEquals(400, response.statusCode(), "Принят неверный запрос " + query);
+        }
+    }
+
     @AfterAll
     static void stopServer() {
         server.stop();
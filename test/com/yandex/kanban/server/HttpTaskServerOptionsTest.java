@@ -0,0 +1,163 @@
+package com.yandex.kanban.server;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.service.EvictionPolicy;
+import com.yandex.kanban.service.Managers;
+import com.yandex.kanban.service.TaskManager;
+import com.yandex.kanban.util.GsonHolder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerOptionsTest {
+    private static final int PORT = 8081;
+    private static final int REQUESTS = 50;
+    private static Gson gson = GsonHolder.getGson();
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void fixedPoolServerHandlesParallelRequests() throws IOException {
+        assertParallelAddsHandled(ExecutorType.FIXED_POOL);
+    }
+
+    @Test
+    void virtualThreadsServerHandlesParallelRequests() throws IOException {
+        assertParallelAddsHandled(ExecutorType.VIRTUAL_THREADS);
+    }
+
+    @Test
+    void parallelExecutorRejectsNotConcurrentManager() throws IOException {
+        ServerOptions options = new ServerOptions();
+        options.setPort(PORT);
+        options.setExecutorType(ExecutorType.FIXED_POOL);
+        assertThrows(IllegalArgumentException.class, () -> new HttpTaskServer(Managers.getDefault(), options),
+                "Непотокобезопасный менеджер принят сервером с пулом потоков");
+
+        //the rejected server must not hold the port
+        HttpTaskServer server = new HttpTaskServer(Managers.getConcurrent(), options);
+        server.start();
+        server.stop();
+    }
+
+    @Test
+    void invalidPoolSize() {
+        ServerOptions options = new ServerOptions();
+        assertThrows(IllegalArgumentException.class, () -> options.setPoolSize(0),
+                "Установлен пул без потоков");
+    }
+
+    @Test
+    void compactJsonOption() throws IOException, InterruptedException {
+        ServerOptions options = new ServerOptions();
+        options.setPort(PORT);
+        options.setCompactJson(true);
+        TaskManager manager = Managers.getDefault();
+        manager.createTask("Task", "desc");
+        HttpTaskServer server = new HttpTaskServer(manager, options);
+        server.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + PORT + "/tasks"))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertFalse(response.body().contains("\n"), "Ответ содержит отступы");
+            assertEquals("application/json; charset=utf-8",
+                    response.headers().firstValue("Content-Type").orElse(null), "Неверный тип ответа");
+            List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+            }.getType());
+            assertEquals("Task", tasks.getFirst().getTitle(), "Неверно сериализована задача");
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void historyCapacityOption() throws IOException, InterruptedException {
+        ServerOptions options = new ServerOptions();
+        options.setPort(PORT);
+        options.setHistoryCapacity(2);
+        HttpTaskServer server = new HttpTaskServer(options);
+        server.start();
+        try {
+            URI uri = URI.create("http://localhost:" + PORT + "/tasks");
+            for (int i = 0; i < 3; i++) {
+                String json = gson.toJson(new Task("Task" + i, "desc"));
+                client.send(HttpRequest.newBuilder().uri(uri).POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+                        HttpResponse.BodyHandlers.ofString());
+            }
+            for (int id = 1; id <= 3; id++) {
+                client.send(HttpRequest.newBuilder().uri(URI.create(uri + "/" + id)).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+            }
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + PORT + "/history"))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            List<Task> history = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+            }.getType());
+            assertEquals(List.of(2, 3), history.stream().map(Task::getId).toList(),
+                    "История сервера не ограничена");
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void historyIsUnboundedByDefault() {
+        assertEquals(ServerOptions.UNBOUNDED_HISTORY, new ServerOptions().getHistoryCapacity(),
+                "История сервера ограничена по умолчанию");
+    }
+
+    @Test
+    void timeWindowHistoryOptionIsRejected() {
+        ServerOptions options = new ServerOptions();
+        assertThrows(IllegalArgumentException.class,
+                () -> options.setHistoryEvictionPolicy(EvictionPolicy.TIME_WINDOW), "Установлена история без окна");
+    }
+
+    void assertParallelAddsHandled(ExecutorType executorType) throws IOException {
+        ServerOptions options = new ServerOptions();
+        options.setPort(PORT);
+        options.setBacklog(REQUESTS);
+        options.setExecutorType(executorType);
+        options.setPoolSize(4);
+        TaskManager manager = Managers.getConcurrent();
+        HttpTaskServer server = new HttpTaskServer(manager, options);
+        server.start();
+        try {
+            URI uri = URI.create("http://localhost:" + PORT + "/tasks");
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                String json = gson.toJson(new Task("Task" + i, "desc"));
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(uri)
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            responses.forEach(el -> assertEquals(201, el.join().statusCode(), "Задача не добавилась"));
+
+            HttpRequest request = HttpRequest.newBuilder().uri(uri).GET().build();
+            HttpResponse<String> response = client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).join();
+            List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+            }.getType());
+            assertEquals(REQUESTS, tasks.size(), "Потерялись задачи");
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayHistoryManagerTest {
+    public static final String DESCRIPTION = "description";
+
+    @Test
+    void repeatedViewMovesTaskToTheEnd() {
+        HistoryManager historyManager = new ArrayHistoryManager();
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+        historyManager.add(task1);
+
+        assertEquals(List.of(task2, task3, task1), historyManager.getHistory(), "Неверный порядок истории");
+        assertEquals(2, historyManager.getHistoryPositions().get(task1.getId()), "Неверная позиция в истории");
+    }
+
+    @Test
+    void removeAndClear() {
+        HistoryManager historyManager = new ArrayHistoryManager();
+        Task task1 = task(1);
+        Task task2 = task(2);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.remove(task2.getId());
+        historyManager.remove(task1.getId());
+        assertTrue(historyManager.getHistory().isEmpty(), "Задачи не удалены из истории");
+
+        historyManager.add(task2);
+        assertEquals(List.of(task2), historyManager.getHistory(), "Задача не добавлена после удаления");
+        historyManager.clear();
+        assertTrue(historyManager.getHistory().isEmpty(), "История не очищена");
+    }
+
+    @Test
+    void sameHistoryAsInMemoryHistoryManager() {
+        HistoryManager arrayHistory = new ArrayHistoryManager(1);
+        HistoryManager linkedHistory = new InMemoryHistoryManager();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tasks.add(task(i * 31 - 1000));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            Task task = tasks.get(random.nextInt(tasks.size()));
+            if (random.nextInt(4) == 0) {
+                arrayHistory.remove(task.getId());
+                linkedHistory.remove(task.getId());
+            } else {
+                arrayHistory.add(task);
+                linkedHistory.add(task);
+            }
+        }
+
+        assertEquals(linkedHistory.getHistory(), arrayHistory.getHistory(), "Истории различаются");
+        assertEquals(linkedHistory.getHistoryPositions(), arrayHistory.getHistoryPositions(),
+                "Позиции в истории различаются");
+    }
+
+    Task task(int id) {
+        Task task = new Task("Task" + id, DESCRIPTION);
+        task.setId(id);
+        return task;
+    }
+}
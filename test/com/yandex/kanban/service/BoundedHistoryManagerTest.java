@@ -0,0 +1,126 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedHistoryManagerTest {
+    public static final String DESCRIPTION = "description";
+
+    @Test
+    void leastRecentlyViewedIsEvicted() {
+        HistoryManager historyManager = Managers.getDefaultHistory(3);
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        Task task4 = task(4);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+        historyManager.add(task4);
+
+        assertEquals(List.of(task3, task1, task4), historyManager.getHistory(),
+                "Вытеснена не самая давно просмотренная задача");
+        assertEquals(0, historyManager.getHistoryPositions().get(task3.getId()), "Неверная позиция в истории");
+    }
+
+    @Test
+    void leastFrequentlyViewedIsEvicted() {
+        HistoryManager historyManager = Managers.getDefaultHistory(3, EvictionPolicy.LEAST_FREQUENTLY_VIEWED);
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        Task task4 = task(4);
+        historyManager.add(task1);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task3);
+        historyManager.add(task4);
+
+        assertEquals(List.of(task1, task3, task4), historyManager.getHistory(),
+                "Вытеснена не самая редко просматриваемая задача");
+
+        historyManager.remove(task4.getId());
+        historyManager.add(task2);
+        historyManager.add(task4);
+        assertEquals(List.of(task1, task3, task4), historyManager.getHistory(),
+                "Счетчик просмотров не сброшен после удаления");
+    }
+
+    @Test
+    void viewsOutsideTimeWindowExpire() {
+        MutableClock clock = new MutableClock();
+        HistoryManager historyManager = new BoundedHistoryManager(10, EvictionPolicy.TIME_WINDOW,
+                Duration.ofMinutes(10), clock);
+        Task task1 = task(1);
+        Task task2 = task(2);
+        historyManager.add(task1);
+        clock.advance(Duration.ofMinutes(5));
+        historyManager.add(task2);
+        clock.advance(Duration.ofMinutes(6));
+
+        assertEquals(List.of(task2), historyManager.getHistory(), "Устаревший просмотр не удален из истории");
+
+        historyManager.add(task1);
+        clock.advance(Duration.ofMinutes(5));
+        assertEquals(List.of(task1), historyManager.getHistory(), "Повторный просмотр не продлил задачу");
+    }
+
+    @Test
+    void timeWindowKeepsCapacity() {
+        HistoryManager historyManager = Managers.getDefaultHistory(2, Duration.ofHours(1));
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        assertEquals(List.of(task2, task3), historyManager.getHistory(), "История превысила емкость");
+    }
+
+    @Test
+    void incorrectCapacityIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Managers.getDefaultHistory(0),
+                "Создана история нулевой емкости");
+    }
+
+    Task task(int id) {
+        Task task = new Task("Task" + id, DESCRIPTION);
+        task.setId(id);
+        return task;
+    }
+
+    static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
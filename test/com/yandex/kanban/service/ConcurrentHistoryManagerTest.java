@@ -0,0 +1,70 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+    private static final String DESCRIPTION = "description";
+    private static final int THREADS = 8;
+    private static final int VIEWS_PER_THREAD = 5_000;
+
+    @Test
+    void queuedViewsAreAppliedInOrder() {
+        HistoryManager historyManager = new ConcurrentHistoryManager(new InMemoryHistoryManager(), 100);
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+        historyManager.remove(task3.getId());
+
+        assertEquals(List.of(task2, task1), historyManager.getHistory(), "Неверный порядок истории");
+        historyManager.add(task3);
+        historyManager.clear();
+        assertTrue(historyManager.getHistory().isEmpty(), "История не очищена");
+    }
+
+    @Test
+    void parallelViewsAreNotLost() throws Exception {
+        HistoryManager historyManager = new ConcurrentHistoryManager();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int thread = i;
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < VIEWS_PER_THREAD; j++) {
+                    historyManager.add(task(thread * 100 + j % 100));
+                    if (j % 1000 == 0) {
+                        historyManager.getHistory();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(THREADS * 100, history.size(), "Потерялись просмотры");
+        assertEquals(history.size(), new HashSet<>(history).size(), "В истории повторяются задачи");
+        assertEquals(history.size(), historyManager.getHistoryPositions().size(), "Неверные позиции в истории");
+    }
+
+    Task task(int id) {
+        Task task = new Task("Task" + id, DESCRIPTION);
+        task.setId(id);
+        return task;
+    }
+}
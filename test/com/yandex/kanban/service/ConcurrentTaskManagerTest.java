@@ -0,0 +1,178 @@
+package com.yandex.kanban.service;
+
+import com.google.gson.Gson;
+import com.yandex.kanban.exceptions.IntersectionException;
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+import com.yandex.kanban.util.GsonHolder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest {
+    private static final String DESCRIPTION = "description";
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 200;
+
+    @Test
+    void parallelAddsKeepScheduleWithoutCrossing() throws Exception {
+        TaskManager manager = Managers.getConcurrent();
+        LocalDateTime start = LocalDateTime.of(2000, 1, 1, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < TASKS_PER_THREAD; j++) {
+                    //every thread competes for the same slots, only one task per slot may win
+                    Task task = new Task("Task", DESCRIPTION);
+                    task.setStartTime(start.plusMinutes(30L * j));
+                    task.setDuration(Duration.ofMinutes(30));
+                    try {
+                        manager.addTask(task);
+                    } catch (IntersectionException ignored) {
+                    }
+                    manager.getTaskById(task.getId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * TASKS_PER_THREAD, manager.getAllTasks().size(), "Потерялись задачи");
+        assertEquals(TASKS_PER_THREAD, manager.getPrioritizedTasks().size(),
+                "В приоритетные задачи попали пересекающиеся задачи");
+        assertEquals(THREADS * TASKS_PER_THREAD, manager.getHistoryManager().getHistory().size(),
+                "Потерялись просмотры");
+    }
+
+    @Test
+    void parallelSubtaskUpdatesKeepEpicConsistent() throws Exception {
+        TaskManager manager = Managers.getConcurrent();
+        Epic epic = manager.createEpic("Epic", DESCRIPTION);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < TASKS_PER_THREAD; j++) {
+                    Subtask subtask = manager.createSubtask("Sub", DESCRIPTION, epic.getId());
+                    manager.updateDuration(Duration.ofMinutes(1), subtask.getId());
+                    manager.updateStatus(TaskStatus.DONE, subtask.getId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * TASKS_PER_THREAD, manager.getAllSubtasksByEpicId(epic.getId()).size(),
+                "Потерялись подзадачи эпика");
+        Epic current = manager.getAllEpics().getFirst();
+        assertEquals(TaskStatus.DONE, current.getStatus(), "Неверный статус эпика");
+        assertEquals(Duration.ZERO, current.getDuration(), "Неверная длительность эпика");
+    }
+
+    @Test
+    void historyCanBeSerializedWhileChanged() throws Exception {
+        TaskManager manager = Managers.getConcurrent();
+        Epic epic = manager.createEpic("Epic", DESCRIPTION);
+        manager.getTaskById(epic.getId());
+        Gson gson = GsonHolder.getGson();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < TASKS_PER_THREAD * 10; i++) {
+                Subtask subtask = manager.createSubtask("Sub", DESCRIPTION, epic.getId());
+                manager.removeTaskById(subtask.getId());
+            }
+        });
+        Future<?> reader = executor.submit(() -> {
+            while (!writer.isDone()) {
+                gson.toJson(manager.getHistory());
+            }
+        });
+        writer.get();
+        reader.get();
+        executor.shutdown();
+
+        Epic viewed = (Epic) manager.getHistory().getFirst();
+        manager.createSubtask("Sub", DESCRIPTION, epic.getId());
+        assertTrue(viewed.getSubtasksIds().isEmpty(), "Возвращен не снимок истории");
+    }
+
+    @Test
+    void addedAndCreatedTasksAreNotShared() {
+        TaskManager manager = Managers.getConcurrent();
+        Epic epic = new Epic("Epic", DESCRIPTION);
+        int epicId = manager.addTask(epic);
+        Subtask created = manager.createSubtask("Sub", DESCRIPTION, epicId);
+
+        assertEquals(epicId, epic.getId(), "Добавленной задаче не назначен id");
+        assertTrue(epic.getSubtasksIds().isEmpty(), "Добавленный эпик изменен менеджером");
+        created.setTitle("Changed");
+        assertEquals("Sub", manager.getTaskById(created.getId()).getTitle(), "Созданная задача не копия");
+    }
+
+    @Test
+    void listedTasksCanBeSerializedWhileChanged() throws Exception {
+        TaskManager manager = Managers.getConcurrent();
+        Epic epic = manager.createEpic("Epic", DESCRIPTION);
+        Gson gson = GsonHolder.getGson();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < TASKS_PER_THREAD * 10; i++) {
+                Subtask subtask = manager.createSubtask("Sub", DESCRIPTION, epic.getId());
+                manager.removeTaskById(subtask.getId());
+            }
+        });
+        Future<?> reader = executor.submit(() -> {
+            while (!writer.isDone()) {
+                gson.toJson(manager.getAllEpics());
+                gson.toJson(manager.getTaskById(epic.getId()));
+                manager.getEndTime(epic.getId());
+            }
+        });
+        writer.get();
+        reader.get();
+        executor.shutdown();
+
+        Epic listed = manager.getAllEpics().getFirst();
+        manager.createSubtask("Sub", DESCRIPTION, epic.getId());
+        assertTrue(listed.getSubtasksIds().isEmpty(), "Возвращен не снимок эпика");
+    }
+
+    @Test
+    void plainHistoryIsWrapped() {
+        HistoryManager history = Managers.getDefaultHistory();
+        TaskManager manager = new ConcurrentTaskManager(history);
+        assertInstanceOf(ConcurrentHistoryManager.class, manager.getHistoryManager(),
+                "История не защищена от параллельных просмотров");
+
+        HistoryManager concurrentHistory = new ConcurrentHistoryManager();
+        assertSame(concurrentHistory, new ConcurrentTaskManager(concurrentHistory).getHistoryManager(),
+                "Потокобезопасная история обернута повторно");
+    }
+
+    @Test
+    void prioritizedTasksIsSnapshot() {
+        TaskManager manager = Managers.getConcurrent();
+        Task task = new Task("Task", DESCRIPTION);
+        task.setStartTime(LocalDateTime.of(2000, 1, 1, 0, 0));
+        manager.addTask(task);
+
+        assertThrows(UnsupportedOperationException.class, () -> manager.getPrioritizedTasks().clear(),
+                "Снимок приоритетных задач можно изменить");
+        assertEquals(1, manager.getPrioritizedTasks().size(), "Неверное количество приоритетных задач");
+    }
+}
@@ -0,0 +1,357 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.exceptions.IntersectionException;
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileBackedTaskManagerLogModeTest extends TaskManagerTest<FileBackedTaskManager> {
+    private static final Path temp;
+    private static final Path tempLog;
+
+    static {
+        try {
+            temp = Files.createTempFile("temp", ".txt");
+            tempLog = temp.resolveSibling(temp.getFileName() + ".log");
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка создания temp файла");
+        }
+    }
+
+    @Override
+    TaskManager getTaskManager() {
+        clearTempFiles();
+        return new FileBackedTaskManager(temp, SaveMode.LOG);
+    }
+
+    @Test
+    void mutationsAppendToLogOnly() throws IOException {
+        TaskManager manager = getTaskManager();
+        Task task = manager.createTask("Task", DESCRIPTION);
+        manager.updateTitle("New title", task.getId());
+        manager.getTaskById(task.getId());
+
+        assertEquals(0, Files.size(temp), "Файл снимка перезаписан в режиме журнала");
+        List<String> records = Files.readAllLines(tempLog);
+        assertEquals(3, records.size(), "Неверное количество записей в журнале");
+        assertTrue(records.get(1).contains("New title"), "В журнал не записано изменение");
+        assertTrue(records.get(2).endsWith(";V;" + task.getId()), "В журнал не записан просмотр");
+    }
+
+    @Test
+    void loadReplaysLog() {
+        TaskManager saveManager = getTaskManager();
+        Task task = new Task("Task", DESCRIPTION);
+        task.setStartTime(LocalDateTime.of(2022, 12, 11, 9, 0));
+        task.setDuration(Duration.ofMinutes(30));
+        saveManager.addTask(task);
+        Task removed = saveManager.createTask("Removed", DESCRIPTION);
+        Epic epic = saveManager.createEpic("Epic", DESCRIPTION);
+        Epic emptyEpic = saveManager.createEpic("Empty epic", DESCRIPTION);
+        Subtask subtask = new Subtask("Sub", DESCRIPTION, epic.getId());
+        subtask.setStartTime(LocalDateTime.of(2022, 12, 11, 10, 0));
+        subtask.setDuration(Duration.ofMinutes(60));
+        saveManager.addSubtask(subtask);
+        saveManager.updateStatus(TaskStatus.IN_PROGRESS, subtask.getId());
+        saveManager.getTaskById(epic.getId());
+        saveManager.getTaskById(task.getId());
+        saveManager.getTaskById(removed.getId());
+        saveManager.getTaskById(epic.getId());
+        saveManager.removeTaskById(removed.getId());
+        Task last = saveManager.createTask("Last", DESCRIPTION);
+        saveManager.removeTaskById(last.getId());
+
+        TaskManager loadManager = new FileBackedTaskManager(temp, SaveMode.LOG);
+
+        assertEquals(toStrings(saveManager.getAllKindOfTasks()), toStrings(loadManager.getAllKindOfTasks()),
+                "Задачи не восстановлены из журнала");
+        assertEquals(toStrings(new ArrayList<>(saveManager.getPrioritizedTasks())),
+                toStrings(new ArrayList<>(loadManager.getPrioritizedTasks())),
+                "Приоритетные задачи не восстановлены из журнала");
+        assertEquals(toStrings(saveManager.getHistoryManager().getHistory()),
+                toStrings(loadManager.getHistoryManager().getHistory()), "История не восстановлена из журнала");
+        assertTrue(loadManager.getAllSubtasksByEpicId(emptyEpic.getId()).isEmpty(),
+                "Эпик без подзадач не восстановлен");
+        assertEquals(last.getId() + 1, loadManager.createTask("Next", DESCRIPTION).getId(),
+                "Неверный id новой задачи после загрузки");
+    }
+
+    @Test
+    void crossingTaskIsLoggedWithoutTime() {
+        TaskManager saveManager = getTaskManager();
+        Task task = new Task("Task", DESCRIPTION);
+        task.setStartTime(LocalDateTime.of(2022, 12, 11, 9, 0));
+        task.setDuration(Duration.ofMinutes(30));
+        saveManager.addTask(task);
+        Task crossing = new Task("Crossing", DESCRIPTION);
+        crossing.setStartTime(LocalDateTime.of(2022, 12, 11, 9, 15));
+        crossing.setDuration(Duration.ofMinutes(30));
+        assertThrows(IntersectionException.class, () -> saveManager.addTask(crossing));
+
+        TaskManager loadManager = new FileBackedTaskManager(temp, SaveMode.LOG);
+        assertEquals(toStrings(saveManager.getAllKindOfTasks()), toStrings(loadManager.getAllKindOfTasks()),
+                "Пересекающаяся задача не записана в журнал");
+    }
+
+    @Test
+    void removingMissingIdIsNotLogged() throws IOException {
+        TaskManager saveManager = getTaskManager();
+        Task task = saveManager.createTask("Task", DESCRIPTION);
+        saveManager.removeTaskById(task.getId() + 100);
+
+        assertEquals(1, Files.readAllLines(tempLog).size(), "Удаление несуществующей задачи записано в журнал");
+        TaskManager loadManager = new FileBackedTaskManager(temp, SaveMode.LOG);
+        assertEquals(task.getId() + 1, loadManager.createTask("Next", DESCRIPTION).getId(),
+                "Неверный id новой задачи после загрузки");
+    }
+
+    @Test
+    void snapshotModeFoldsLogIntoSnapshot() throws IOException {
+        TaskManager logManager = getTaskManager();
+        logManager.createTask("Task", DESCRIPTION);
+        TaskManager snapshotManager = new FileBackedTaskManager(temp, SaveMode.SNAPSHOT);
+        snapshotManager.createTask("Task2", DESCRIPTION);
+
+        assertFalse(Files.exists(tempLog), "Журнал не удален после записи снимка");
+        assertEquals(2, Files.readAllLines(temp).size(), "Снимок не содержит задачи из журнала");
+    }
+
+    @Test
+    void tornLastRecordIsDiscarded() throws IOException {
+        TaskManager saveManager = getTaskManager();
+        Task task = saveManager.createTask("Task", DESCRIPTION);
+        Task torn = saveManager.createTask("Torn", DESCRIPTION);
+        byte[] log = Files.readAllBytes(tempLog);
+        Files.write(tempLog, Arrays.copyOf(log, log.length - 5));
+
+        TaskManager loadManager = new FileBackedTaskManager(temp, SaveMode.LOG);
+        assertEquals(task, loadManager.getTaskById(task.getId()), "Не восстановлена целая запись журнала");
+        assertNull(loadManager.getTaskById(torn.getId()), "Восстановлена оборванная запись журнала");
+        assertEquals(2, Files.readAllLines(tempLog).size(), "Оборванная запись не отрезана от журнала");
+    }
+
+    @Test
+    void corruptedRecordInTheMiddleIsRejected() throws IOException {
+        TaskManager saveManager = getTaskManager();
+        saveManager.createTask("Task", DESCRIPTION);
+        saveManager.createTask("Task2", DESCRIPTION);
+        List<String> records = new ArrayList<>(Files.readAllLines(tempLog));
+        records.set(0, records.get(0).replace("Task", "Tusk"));
+        Files.write(tempLog, records);
+
+        assertThrows(RuntimeException.class, () -> new FileBackedTaskManager(temp, SaveMode.LOG),
+                "Загружен поврежденный журнал");
+    }
+
+    @Test
+    void logIsCompactedIntoSnapshot() throws IOException {
+        clearTempFiles();
+        FileBackedTaskManager manager = new FileBackedTaskManager(temp, SaveMode.LOG);
+        manager.setMaxLogRecords(3);
+        Task task = manager.createTask("Task", DESCRIPTION);
+        manager.getTaskById(task.getId());
+        manager.createTask("Task2", DESCRIPTION);
+
+        assertFalse(Files.exists(tempLog), "Журнал не сжат в снимок");
+        assertEquals(2, Files.readAllLines(temp).size(), "Снимок не содержит задачи из журнала");
+        assertFalse(Files.exists(temp.resolveSibling(temp.getFileName() + ".tmp")), "Остался временный файл");
+
+        manager.createTask("Task3", DESCRIPTION);
+        TaskManager loadManager = new FileBackedTaskManager(temp, SaveMode.LOG);
+        assertEquals(3, loadManager.getAllTasks().size(), "Задачи не восстановлены из снимка и журнала");
+        assertEquals(List.of(task), loadManager.getHistoryManager().getHistory(), "История не восстановлена");
+    }
+
+    @Test
+    void batchedPolicyWritesOnFlush() throws IOException {
+        clearTempFiles();
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(temp, SaveMode.LOG,
+                DurabilityPolicy.fsyncEvery(60_000))) {
+            manager.createTask("Task", DESCRIPTION);
+            manager.createTask("Task2", DESCRIPTION);
+            assertFalse(Files.exists(tempLog), "Журнал записан до сброса пакета");
+
+            manager.flush();
+            assertEquals(2, Files.readAllLines(tempLog).size(), "Пакет изменений не записан в журнал");
+        }
+    }
+
+    @Test
+    void batchedPolicyFlushesOnSizeThreshold() throws InterruptedException, IOException {
+        clearTempFiles();
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(temp, SaveMode.SNAPSHOT,
+                DurabilityPolicy.fsyncEvery(60_000, 3))) {
+            for (int i = 0; i < 3; i++) {
+                manager.createTask("Task" + i, DESCRIPTION);
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (Files.readAllLines(temp).size() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(3, Files.readAllLines(temp).size(), "Пакет не сброшен при достижении размера");
+        }
+    }
+
+    @Test
+    void batchedChangesAreCoalesced() throws IOException {
+        clearTempFiles();
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(temp, SaveMode.LOG,
+                DurabilityPolicy.fsyncEvery(60_000))) {
+            Task hot = manager.createTask("Hot", DESCRIPTION);
+            Task other = manager.createTask("Other", DESCRIPTION);
+            for (int i = 0; i < 100; i++) {
+                manager.updateTitle("Hot" + i, hot.getId());
+                manager.getTaskById(hot.getId());
+                manager.getTaskById(other.getId());
+            }
+            Task removed = manager.createTask("Removed", DESCRIPTION);
+            manager.getTaskById(removed.getId());
+            manager.removeTaskById(removed.getId());
+            manager.flush();
+
+            List<String> records = Files.readAllLines(tempLog);
+            assertEquals(5, records.size(), "Изменения не объединены");
+            assertTrue(records.get(0).contains("Hot99"), "В журнал записано не последнее состояние задачи");
+
+            TaskManager loadManager = new FileBackedTaskManager(temp, SaveMode.LOG);
+            assertEquals(List.of(hot, other), loadManager.getHistoryManager().getHistory(),
+                    "История не восстановлена из объединенного журнала");
+            assertEquals("Hot99", loadManager.getTaskById(hot.getId()).getTitle(), "Задача не восстановлена");
+            assertEquals(removed.getId() + 1, loadManager.createTask("Next", DESCRIPTION).getId(),
+                    "Переиспользован id удаленной задачи");
+        }
+    }
+
+    @Test
+    void manualFlushesDoNotReorderBatches() throws InterruptedException {
+        clearTempFiles();
+        FileBackedTaskManager manager = new FileBackedTaskManager(temp, SaveMode.LOG,
+                DurabilityPolicy.fsyncEvery(1, 5));
+        manager.setMaxLogRecords(20);
+        Thread flushing = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                manager.flush();
+            }
+        });
+        flushing.start();
+        Task task = manager.createTask("Task", DESCRIPTION);
+        for (int i = 0; i < 500; i++) {
+            manager.updateTitle("Task" + i, task.getId());
+            manager.createTask("Other" + i, DESCRIPTION);
+        }
+        flushing.join();
+        manager.close();
+
+        TaskManager loadManager = new FileBackedTaskManager(temp, SaveMode.LOG);
+        assertEquals(toStrings(manager.getAllKindOfTasks()), toStrings(loadManager.getAllKindOfTasks()),
+                "Изменения потеряны при параллельном сбросе");
+    }
+
+    @Test
+    void idsAreNotReusedAfterClear() {
+        clearTempFiles();
+        FileBackedTaskManager saveManager = new FileBackedTaskManager(temp, SaveMode.LOG,
+                DurabilityPolicy.fsyncEvery(60_000));
+        Task task = saveManager.createTask("Task", DESCRIPTION);
+        saveManager.removeAllTasks();
+        saveManager.close();
+
+        TaskManager loadManager = new FileBackedTaskManager(temp, SaveMode.LOG);
+        assertTrue(loadManager.getAllKindOfTasks().isEmpty(), "Задачи не удалены");
+        assertEquals(task.getId() + 1, loadManager.createTask("Next", DESCRIPTION).getId(),
+                "Переиспользован id после удаления всех задач");
+    }
+
+    @Test
+    void closeFlushesPendingChanges() {
+        clearTempFiles();
+        FileBackedTaskManager manager = new FileBackedTaskManager(temp, SaveMode.LOG,
+                DurabilityPolicy.fsyncEvery(60_000));
+        Task task = manager.createTask("Task", DESCRIPTION);
+        manager.getTaskById(task.getId());
+        manager.close();
+
+        TaskManager loadManager = new FileBackedTaskManager(temp, SaveMode.LOG);
+        assertEquals(task, loadManager.getTaskById(task.getId()), "Задача потеряна при закрытии");
+        assertEquals(1, loadManager.getHistoryManager().getHistory().size(), "Просмотр потерян при закрытии");
+    }
+
+    @Test
+    void mutationsAfterCloseAreRejected() {
+        FileBackedTaskManager manager = (FileBackedTaskManager) getTaskManager();
+        manager.createTask("Task", DESCRIPTION);
+        manager.close();
+
+        assertThrows(IllegalStateException.class, () -> manager.createTask("Late", DESCRIPTION),
+                "Закрытый менеджер принял изменение");
+        assertEquals(1, manager.getAllTasks().size(), "Отклоненное изменение применено");
+    }
+
+    @Test
+    void failedBackgroundFlushRejectsNextMutation() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("kanban");
+        Path file = directory.resolve("tasks.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, SaveMode.SNAPSHOT,
+                DurabilityPolicy.fsyncEvery(60_000, 1));
+        Task task = manager.createTask("Task", DESCRIPTION);
+        manager.flush();
+        Files.delete(file);
+        Files.delete(directory);
+        manager.updateTitle("New title", task.getId());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        boolean rejected = false;
+        while (!rejected && System.currentTimeMillis() < deadline) {
+            try {
+                manager.getTaskById(task.getId());
+                Thread.sleep(10);
+            } catch (RuntimeException e) {
+                rejected = true;
+            }
+        }
+        assertTrue(rejected, "Ошибка фоновой записи не передана вызывающему");
+        assertThrows(RuntimeException.class, () -> manager.createTask("Rejected", DESCRIPTION));
+        assertEquals(1, manager.getAllTasks().size(), "Изменение применено после ошибки записи");
+
+        Files.createDirectory(directory);
+        manager.flush();
+        manager.createTask("Accepted", DESCRIPTION);
+        manager.close();
+        assertEquals(2, new FileBackedTaskManager(file).getAllTasks().size(), "Изменения не записаны после сбоя");
+    }
+
+    @Test
+    void fsyncAlwaysWritesSynchronously() throws IOException {
+        clearTempFiles();
+        FileBackedTaskManager manager = new FileBackedTaskManager(temp, SaveMode.SNAPSHOT,
+                DurabilityPolicy.fsyncAlways());
+        manager.createTask("Task", DESCRIPTION);
+        assertEquals(1, Files.readAllLines(temp).size(), "Задача не записана в файл");
+    }
+
+    List<String> toStrings(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+
+    void clearTempFiles() {
+        try {
+            Files.writeString(temp, "");
+            Files.deleteIfExists(tempLog);
+        } catch (IOException e) {
+            throw new RuntimeException("Не прошла отчистка temp файла");
+        }
+    }
+}
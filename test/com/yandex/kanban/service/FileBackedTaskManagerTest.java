@@ -134,6 +134,89 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         }
     }
 
+    @Test
+    void loadLargeFile() throws IOException {
+        int count = 30_000;
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Task task = new Task("Task" + i, DESCRIPTION);
+            task.setId(i);
+            task.setStartTime(LocalDateTime.of(2022, 12, 11, 9, 0).plusMinutes(i * 2L));
+            task.setDuration(Duration.ofMinutes(1));
+            lines.add(Converter.taskToString(task, i % 10 == 0 ? count / 10 - i / 10 : -1, i % 2 == 0));
+        }
+        Files.write(temp, lines);
+
+        TaskManager manager = new FileBackedTaskManager(temp);
+        assertEquals(count, manager.getAllTasks().size(), "Загружены не все задачи");
+        assertEquals(count / 2, manager.getPrioritizedTasks().size(), "Загружены не все приоритетные задачи");
+        List<Task> history = manager.getHistoryManager().getHistory();
+        assertEquals(count / 10, history.size(), "Загружена не вся история");
+        assertEquals(count, history.getFirst().getId(), "История загружена не по порядку");
+        assertEquals(10, history.getLast().getId(), "История загружена не по порядку");
+        assertEquals(count + 1, manager.createTask("Next", DESCRIPTION).getId(), "Неверный id новой задачи");
+        clearTempFile();
+    }
+
+    @Test
+    void readsDoNotRewriteSnapshot() throws IOException {
+        initTestManagerWithThreeTasks();
+        List<String> snapshot = readSaveFile();
+        testManager.getTaskById(3);
+        testManager.getTaskById(1);
+
+        assertEquals(snapshot, readSaveFile(), "Просмотр задачи перезаписал файл сохранения");
+        TaskManager loadManager = new FileBackedTaskManager(temp);
+        assertEquals(List.of(testManager.getTaskById(3), testManager.getTaskById(1)),
+                loadManager.getHistoryManager().getHistory(), "История не восстановлена из журнала просмотров");
+
+        testManager.createTask("Task2", DESCRIPTION);
+        assertFalse(Files.exists(temp.resolveSibling(temp.getFileName() + ".log")),
+                "Журнал просмотров не удален после записи снимка");
+        assertEquals(loadManager.getHistoryManager().getHistory(),
+                new FileBackedTaskManager(temp).getHistoryManager().getHistory(), "История потеряна в снимке");
+    }
+
+    @Test
+    void binaryFormatAndConversion() throws IOException {
+        TaskManager csvManager = initManagerWithHistoryAndPrioritizedTasks();
+        Path binary = Files.createTempFile("temp", ".bin");
+        Path csv = Files.createTempFile("temp", ".txt");
+        try {
+            FileBackedTaskManager.convert(temp, binary, StorageFormat.BINARY);
+            assertEquals(StorageFormat.BINARY, FileBackedTaskManager.detectFormat(binary),
+                    "Файл не в двоичном формате");
+            assertFalse(Files.exists(binary.resolveSibling(binary.getFileName() + ".tmp")),
+                    "Остался временный файл конвертации");
+            assertTrue(Files.size(binary) < Files.size(temp), "Двоичный файл не меньше текстового");
+
+            FileBackedTaskManager binaryManager = new FileBackedTaskManager(binary, SaveMode.SNAPSHOT,
+                    DurabilityPolicy.osBuffered(), StorageFormat.BINARY);
+            assertEquals(csvManager.getAllKindOfTasks().toString(), binaryManager.getAllKindOfTasks().toString(),
+                    "Задачи не восстановлены из двоичного файла");
+            assertEquals(csvManager.getPrioritizedTasks().toString(), binaryManager.getPrioritizedTasks().toString(),
+                    "Приоритетные задачи не восстановлены из двоичного файла");
+            assertEquals(csvManager.getHistoryManager().getHistory().toString(),
+                    binaryManager.getHistoryManager().getHistory().toString(),
+                    "История не восстановлена из двоичного файла");
+
+            binaryManager.createTask("New task", DESCRIPTION);
+            assertEquals(StorageFormat.BINARY, FileBackedTaskManager.detectFormat(binary),
+                    "Снимок записан не в двоичном формате");
+            TaskManager loadManager = new FileBackedTaskManager(binary);
+            assertEquals(binaryManager.getAllKindOfTasks().toString(), loadManager.getAllKindOfTasks().toString(),
+                    "Двоичный файл не прочитан менеджером текстового формата");
+
+            FileBackedTaskManager.convert(binary, csv, StorageFormat.CSV);
+            assertEquals(StorageFormat.CSV, FileBackedTaskManager.detectFormat(csv), "Файл не в текстовом формате");
+            assertEquals(binaryManager.getAllKindOfTasks().toString(),
+                    new FileBackedTaskManager(csv).getAllKindOfTasks().toString(), "Задачи потеряны при конвертации");
+        } finally {
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(csv);
+        }
+    }
+
     void initTestManagerWithThreeTasks() {
         clearTempFile();
         testManager = new FileBackedTaskManager(temp);
@@ -165,6 +248,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
     void clearTempFile() {
         try {
             Files.writeString(temp, "");
+            Files.deleteIfExists(temp.resolveSibling(temp.getFileName() + ".log"));
         } catch (IOException e) {
             throw new RuntimeException("Не прошла отчистка temp файла");
         }
@@ -113,6 +113,39 @@ class InMemoryHistoryManagerTest {
         assertEquals(0, historyManager.getHistory().size(), "История не отчистилась");
     }
 
+    @Test
+    void historyPositions() {
+        TaskManager taskManager = initTaskManagersWith10Tasks();
+        historyManager = taskManager.getHistoryManager();
+        taskManager.getTaskById(5);
+        taskManager.getTaskById(1);
+        taskManager.getTaskById(9);
+        taskManager.getTaskById(5);
+        taskManager.removeTaskById(9);
+
+        assertEquals(Map.of(1, 0, 5, 1), historyManager.getHistoryPositions(), "Неверные позиции в истории");
+    }
+
+    @Test
+    void historySnapshotIsCachedUntilChange() {
+        TaskManager taskManager = initTaskManagersWith10Tasks();
+        historyManager = taskManager.getHistoryManager();
+        taskManager.getTaskById(5);
+        taskManager.getTaskById(1);
+
+        List<Task> history = historyManager.getHistory();
+        assertSame(history, historyManager.getHistory(), "Снимок истории не закеширован");
+        assertThrows(UnsupportedOperationException.class, () -> history.remove(0), "Снимок истории изменяем");
+
+        taskManager.getTaskById(5);
+        assertEquals(List.of(1, 5), historyManager.getHistory().stream().map(Task::getId).toList(),
+                "Снимок истории не обновлен после просмотра");
+        taskManager.removeTaskById(1);
+        assertEquals(List.of(5), historyManager.getHistory().stream().map(Task::getId).toList(),
+                "Снимок истории не обновлен после удаления");
+        assertEquals(List.of(5, 1), history.stream().map(Task::getId).toList(), "Изменился старый снимок истории");
+    }
+
     TaskManager initTaskManagersWith10Tasks() {
         TaskManager taskManager = new InMemoryTaskManager();
         taskManager.createEpic("Epic 1", DESCRIPTION);
@@ -14,4 +14,10 @@ class ManagersTest {
         assertNotNull(hm, "HistoryManager не проинициилизирован");
     }
 
+    @Test
+    void initConcurrentManager() {
+        TaskManager tm = Managers.getConcurrent();
+        assertInstanceOf(ConcurrentTaskManager.class, tm, "Создан не потокобезопасный TaskManager");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.exceptions.IntersectionException;
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class MappedTaskManagerTest extends TaskManagerTest<MappedTaskManager> {
+    private static final Path temp;
+    private static final Path tempHeap;
+
+    static {
+        try {
+            temp = Files.createTempFile("temp", ".slots");
+            tempHeap = temp.resolveSibling(temp.getFileName() + ".heap");
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка создания temp файла");
+        }
+    }
+
+    @Override
+    TaskManager getTaskManager() {
+        clearTempFiles();
+        return new MappedTaskManager(temp);
+    }
+
+    @Test
+    void loadManager() {
+        MappedTaskManager saveManager = (MappedTaskManager) getTaskManager();
+        Task task = new Task("Задача", null);
+        task.setStartTime(LocalDateTime.of(2022, 12, 11, 9, 0));
+        task.setDuration(Duration.ofMinutes(30));
+        saveManager.addTask(task);
+        Task removed = saveManager.createTask("Removed", DESCRIPTION);
+        Epic epic = saveManager.createEpic("Epic", DESCRIPTION);
+        Subtask subtask = new Subtask("Sub", DESCRIPTION, epic.getId());
+        subtask.setStartTime(LocalDateTime.of(2022, 12, 11, 10, 0));
+        subtask.setDuration(Duration.ofMinutes(60));
+        saveManager.addSubtask(subtask);
+        saveManager.createSubtask("Sub2", DESCRIPTION, epic.getId());
+        saveManager.updateStatus(TaskStatus.DONE, subtask.getId());
+        saveManager.updateTitle("New title", task.getId());
+        saveManager.getTaskById(epic.getId());
+        saveManager.getTaskById(task.getId());
+        saveManager.getTaskById(removed.getId());
+        saveManager.getTaskById(epic.getId());
+        saveManager.removeTaskById(removed.getId());
+        saveManager.close();
+
+        TaskManager loadManager = new MappedTaskManager(temp);
+        assertEquals(toStrings(saveManager.getAllKindOfTasks()), toStrings(loadManager.getAllKindOfTasks()),
+                "Задачи не восстановлены");
+        assertEquals(toStrings(new ArrayList<>(saveManager.getPrioritizedTasks())),
+                toStrings(new ArrayList<>(loadManager.getPrioritizedTasks())), "Приоритетные задачи не восстановлены");
+        assertEquals(toStrings(saveManager.getHistoryManager().getHistory()),
+                toStrings(loadManager.getHistoryManager().getHistory()), "История не восстановлена");
+        assertEquals(saveManager.getEndTime(epic.getId()), loadManager.getEndTime(epic.getId()),
+                "Время эпика не восстановлено");
+        assertEquals(removed.getId() + 4, loadManager.createTask("Next", DESCRIPTION).getId(),
+                "Неверный id новой задачи после загрузки");
+    }
+
+    @Test
+    void scalarUpdatesAreWrittenInPlace() throws IOException {
+        MappedTaskManager manager = (MappedTaskManager) getTaskManager();
+        Task task = manager.createTask("Task", DESCRIPTION);
+        long slotsSize = Files.size(temp);
+        long heapSize = Files.size(tempHeap);
+
+        manager.updateStatus(TaskStatus.IN_PROGRESS, task.getId());
+        manager.updateStartTime(LocalDateTime.of(2022, 12, 11, 9, 0), task.getId());
+        manager.getTaskById(task.getId());
+        assertEquals(slotsSize, Files.size(temp), "Файл слотов перезаписан");
+        assertEquals(heapSize, Files.size(tempHeap), "Строки перезаписаны при изменении полей");
+
+        TaskManager loadManager = new MappedTaskManager(temp);
+        assertEquals(TaskStatus.IN_PROGRESS, loadManager.getTaskById(task.getId()).getStatus(),
+                "Статус не записан в слот");
+    }
+
+    @Test
+    void slotsGrowPastInitialCapacity() {
+        MappedTaskManager manager = (MappedTaskManager) getTaskManager();
+        for (int i = 0; i < 3000; i++) {
+            manager.createTask("Task" + i, DESCRIPTION);
+        }
+        manager.removeAllTasks();
+        manager.createTask("Last", DESCRIPTION);
+
+        TaskManager loadManager = new MappedTaskManager(temp);
+        assertEquals(1, loadManager.getAllTasks().size(), "Неверное количество задач после загрузки");
+        assertEquals("Last", loadManager.getTaskById(3001).getTitle(), "Задача за пределами начальной емкости");
+    }
+
+    @Test
+    void slotsAreMappedInChunks() {
+        clearTempFiles();
+        MappedTaskManager manager = new MappedTaskManager(temp, 100);
+        for (int i = 1; i <= 3000; i++) {
+            manager.createTask("Task" + i, DESCRIPTION);
+        }
+        manager.getTaskById(1050);
+        manager.updateTitle("Changed", 2001);
+        manager.close();
+
+        MappedTaskManager loadManager = new MappedTaskManager(temp);
+        assertEquals(toStrings(manager.getAllKindOfTasks()), toStrings(loadManager.getAllKindOfTasks()),
+                "Задачи из разных частей файла не восстановлены");
+        assertEquals(List.of(1050), loadManager.getHistoryManager().getHistory().stream().map(Task::getId).toList(),
+                "История не восстановлена");
+        loadManager.close();
+    }
+
+    @Test
+    void crossingTaskPastInitialCapacityIsWritten() {
+        MappedTaskManager manager = (MappedTaskManager) getTaskManager();
+        Task task = new Task("Task", DESCRIPTION);
+        task.setStartTime(LocalDateTime.of(2022, 12, 11, 9, 0));
+        task.setDuration(Duration.ofMinutes(30));
+        manager.addTask(task);
+        for (int i = 0; i < 1023; i++) {
+            manager.createTask("Task" + i, DESCRIPTION);
+        }
+        Task crossing = new Task("Crossing", DESCRIPTION);
+        crossing.setStartTime(LocalDateTime.of(2022, 12, 11, 9, 15));
+        crossing.setDuration(Duration.ofMinutes(30));
+        assertThrows(IntersectionException.class, () -> manager.addTask(crossing));
+        assertEquals(1025, crossing.getId(), "Задача не вышла за начальную емкость");
+        manager.updateStatus(TaskStatus.DONE, crossing.getId());
+        manager.removeTaskById(5000);
+        manager.close();
+
+        TaskManager loadManager = new MappedTaskManager(temp);
+        assertEquals(toStrings(manager.getAllKindOfTasks()), toStrings(loadManager.getAllKindOfTasks()),
+                "Пересекающаяся задача не записана");
+    }
+
+    @Test
+    void incorrectFileIsRejected() throws IOException {
+        clearTempFiles();
+        Files.writeString(temp, "1;TASK;Task;description;NEW;null;0;-1;false");
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> new MappedTaskManager(temp));
+        assertTrue(exception.getMessage().startsWith("Некорректные данные в файле: "));
+    }
+
+    @Test
+    void rejectedFileIsNotLeftOpen() throws IOException {
+        Path descriptors = Path.of("/proc/self/fd");
+        assumeTrue(Files.isDirectory(descriptors), "Открытые файлы можно проверить только через /proc");
+        clearTempFiles();
+        Files.writeString(temp, "1;TASK;Task;description;NEW;null;0;-1;false");
+        assertThrows(RuntimeException.class, () -> new MappedTaskManager(temp));
+
+        try (Stream<Path> links = Files.list(descriptors)) {
+            List<Path> openFiles = links.map(el -> {
+                try {
+                    return Files.readSymbolicLink(el);
+                } catch (IOException e) {
+                    return el;
+                }
+            }).toList();
+            assertFalse(openFiles.contains(temp.toAbsolutePath()), "Файл слотов остался открыт");
+            assertFalse(openFiles.contains(tempHeap.toAbsolutePath()), "Файл кучи остался открыт");
+        }
+    }
+
+    List<String> toStrings(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+
+    void clearTempFiles() {
+        try {
+            Files.deleteIfExists(temp);
+            Files.deleteIfExists(tempHeap);
+        } catch (IOException e) {
+            throw new RuntimeException("Не прошла отчистка temp файла");
+        }
+    }
+}
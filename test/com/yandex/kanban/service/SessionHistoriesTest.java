@@ -0,0 +1,136 @@
+package com.yandex.kanban.service;
+
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionHistoriesTest {
+    private static final String DESCRIPTION = "description";
+    private static final IntFunction<Task> ALL = SessionHistoriesTest::task;
+
+    @Test
+    void sessionsHaveOwnBoundedHistories() {
+        SessionHistories sessions = new SessionHistories(2, Duration.ofMinutes(30), 10);
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        sessions.add("first", task1.getId());
+        sessions.add("first", task2.getId());
+        sessions.add("first", task3.getId());
+        sessions.add("second", task1.getId());
+
+        assertEquals(List.of(task2, task3), sessions.getHistory("first", ALL), "История сессии не ограничена");
+        assertEquals(List.of(task1), sessions.getHistory("second", ALL), "Истории сессий смешались");
+        assertTrue(sessions.getHistory("unknown", ALL).isEmpty(), "У неизвестного клиента есть история");
+        assertEquals(2, sessions.size(), "Чтение истории создало сессию");
+    }
+
+    @Test
+    void deletedTasksAreFilteredOnRead() {
+        SessionHistories sessions = new SessionHistories(10, Duration.ofMinutes(30), 10);
+        Task task1 = task(1);
+        Task task2 = task(2);
+        sessions.add("first", task1.getId());
+        sessions.add("first", task2.getId());
+
+        assertEquals(List.of(task2), sessions.getHistory("first", id -> id != task1.getId() ? task(id) : null),
+                "Удаленная задача осталась в истории сессии");
+        assertEquals(List.of(task2), sessions.getHistory("first", ALL), "Удаленная задача не убрана из сессии");
+    }
+
+    @Test
+    void historyShowsTasksChangedAfterView() {
+        TaskManager manager = Managers.getConcurrent();
+        SessionHistories sessions = new SessionHistories(10, Duration.ofMinutes(30), 10);
+        Task task = manager.createTask("Task", DESCRIPTION);
+        sessions.add("first", manager.getTaskById(task.getId()).getId());
+        manager.updateTitle("New title", task.getId());
+        manager.updateStatus(TaskStatus.DONE, task.getId());
+
+        Task viewed = sessions.getHistory("first", manager::findTaskById).getFirst();
+        assertEquals("New title", viewed.getTitle(), "В истории сессии устаревшее название");
+        assertEquals(TaskStatus.DONE, viewed.getStatus(), "В истории сессии устаревший статус");
+    }
+
+    @Test
+    void idleSessionsExpire() {
+        MutableClock clock = new MutableClock();
+        SessionHistories sessions = new SessionHistories(10, Duration.ofMinutes(10), 10, clock);
+        sessions.add("idle", 1);
+        sessions.add("active", 2);
+        clock.advance(Duration.ofMinutes(6));
+        sessions.getHistory("active", ALL);
+        clock.advance(Duration.ofMinutes(6));
+
+        assertTrue(sessions.getHistory("idle", ALL).isEmpty(), "Неактивная сессия не истекла");
+        assertEquals(1, sessions.size(), "Неактивная сессия не удалена");
+        assertEquals(1, sessions.getHistory("active", ALL).size(), "Активная сессия удалена");
+    }
+
+    @Test
+    void idleSessionsAreSweptWithoutLookup() {
+        MutableClock clock = new MutableClock();
+        SessionHistories sessions = new SessionHistories(10, Duration.ofMinutes(10), 10, clock);
+        sessions.add("first", 1);
+        sessions.add("second", 2);
+        clock.advance(Duration.ofMinutes(11));
+        sessions.add("third", 3);
+
+        assertEquals(1, sessions.size(), "Неактивные сессии не удалены");
+    }
+
+    @Test
+    void sessionCountIsBounded() {
+        MutableClock clock = new MutableClock();
+        SessionHistories sessions = new SessionHistories(10, Duration.ofMinutes(10), 2, clock);
+        sessions.add("first", 1);
+        clock.advance(Duration.ofSeconds(1));
+        sessions.add("second", 2);
+        clock.advance(Duration.ofSeconds(1));
+        sessions.getHistory("first", ALL);
+        sessions.add("third", 3);
+
+        assertEquals(2, sessions.size(), "Превышено количество сессий");
+        assertTrue(sessions.getHistory("second", ALL).isEmpty(), "Вытеснена не самая давно использованная сессия");
+        assertEquals(1, sessions.getHistory("first", ALL).size(), "Вытеснена активная сессия");
+    }
+
+    static Task task(int id) {
+        Task task = new Task("Task" + id, DESCRIPTION);
+        task.setId(id);
+        return task;
+    }
+
+    static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
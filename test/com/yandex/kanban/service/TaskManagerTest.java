@@ -1,5 +1,6 @@
 package com.yandex.kanban.service;
 
+import com.yandex.kanban.exceptions.IntersectionException;
 import com.yandex.kanban.model.Epic;
 import com.yandex.kanban.model.Subtask;
 import com.yandex.kanban.model.Task;
@@ -222,5 +223,141 @@ abstract class TaskManagerTest<T extends TaskManager> {
 
     }
 
+    @Test
+    void crossingSemanticsForNeighbourTasks() {
+        Task task = new Task("Task", DESCRIPTION);
+        task.setStartTime(LocalDateTime.of(2000, 1, 1, 10, 0));
+        task.setDuration(Duration.ofMinutes(60));
+        taskManager.addTask(task);
+
+        Task adjacentBefore = new Task("Before", DESCRIPTION);
+        adjacentBefore.setStartTime(LocalDateTime.of(2000, 1, 1, 9, 0));
+        adjacentBefore.setDuration(Duration.ofMinutes(60));
+        assertDoesNotThrow(() -> taskManager.addTask(adjacentBefore), "Смежная задача перед пересекается");
+
+        Task adjacentAfter = new Task("After", DESCRIPTION);
+        adjacentAfter.setStartTime(LocalDateTime.of(2000, 1, 1, 11, 0));
+        adjacentAfter.setDuration(Duration.ofMinutes(60));
+        assertDoesNotThrow(() -> taskManager.addTask(adjacentAfter), "Смежная задача после пересекается");
+
+        Task zeroWithSameStart = new Task("Zero", DESCRIPTION);
+        zeroWithSameStart.setStartTime(LocalDateTime.of(2000, 1, 1, 10, 0));
+        assertDoesNotThrow(() -> taskManager.addTask(zeroWithSameStart),
+                "Задача нулевой длительности с тем же началом пересекается");
+
+        Task sameStart = new Task("Same start", DESCRIPTION);
+        sameStart.setStartTime(LocalDateTime.of(2000, 1, 1, 10, 0));
+        sameStart.setDuration(Duration.ofMinutes(1));
+        assertThrows(IntersectionException.class, () -> taskManager.addTask(sameStart),
+                "Задачи с одинаковым началом не пересеклись");
+
+        Task zeroInside = new Task("Zero inside", DESCRIPTION);
+        zeroInside.setStartTime(LocalDateTime.of(2000, 1, 1, 10, 30));
+        assertThrows(IntersectionException.class, () -> taskManager.addTask(zeroInside),
+                "Задача нулевой длительности внутри другой не пересеклась");
+
+        Task covering = new Task("Covering", DESCRIPTION);
+        covering.setStartTime(LocalDateTime.of(2000, 1, 1, 8, 0));
+        covering.setDuration(Duration.ofHours(6));
+        assertThrows(IntersectionException.class, () -> taskManager.addTask(covering),
+                "Задача, покрывающая другие, не пересеклась");
+
+        assertEquals(4, taskManager.getPrioritizedTasks().size(), "Неверное количество приоритетных задач");
+    }
+
+    @Test
+    void prioritizedTasksInTimeWindow() {
+        LocalDateTime day = LocalDateTime.of(2000, 1, 1, 0, 0);
+        Task[] scheduled = new Task[5];
+        for (int i = 0; i < scheduled.length; i++) {
+            scheduled[i] = new Task("Task" + i, DESCRIPTION);
+            scheduled[i].setStartTime(day.plusHours(i * 2L));
+            scheduled[i].setDuration(Duration.ofMinutes(90));
+            taskManager.addTask(scheduled[i]);
+        }
+        taskManager.createTask("Unscheduled", DESCRIPTION);
+
+        assertEquals(List.of(scheduled[1], scheduled[2]),
+                taskManager.getPrioritizedTasks(day.plusHours(3), day.plusHours(6), 10),
+                "Неверные задачи в окне: задача, начатая до окна, или задача, начатая на его конце");
+        assertEquals(List.of(scheduled[2]), taskManager.getPrioritizedTasks(day.plusMinutes(210),
+                day.plusHours(5), 10), "В окно попала закончившаяся задача");
+        assertEquals(List.of(scheduled[3], scheduled[4]),
+                taskManager.getPrioritizedTasks(day.plusHours(6), null, 10), "Неверное окно без конца");
+        assertEquals(List.of(scheduled[0], scheduled[1]),
+                taskManager.getPrioritizedTasks(null, null, 2), "Не применено ограничение количества");
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.getPrioritizedTasks(day.plusHours(1), day, 10), "Принято окно с концом до начала");
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.getPrioritizedTasks(null, null, 0), "Принято нулевое ограничение");
+    }
+
+    @Test
+    void findFreeSlot() {
+        LocalDateTime day = LocalDateTime.of(2000, 1, 1, 0, 0);
+        int[][] schedule = {{60, 60}, {120, 30}, {180, 0}, {180, 60}, {300, 0}, {360, 60}};
+        for (int[] slot : schedule) {
+            Task task = new Task("Task", DESCRIPTION);
+            task.setStartTime(day.plusMinutes(slot[0]));
+            task.setDuration(Duration.ofMinutes(slot[1]));
+            taskManager.addTask(task);
+        }
+
+        assertEquals(day, taskManager.findFreeSlot(day, Duration.ofMinutes(60)), "Не найден слот до расписания");
+        assertEquals(day.plusMinutes(150), taskManager.findFreeSlot(day.plusMinutes(70), Duration.ofMinutes(30)),
+                "Слот пересекается с задачами или найден не самый ранний");
+        assertEquals(day.plusMinutes(240), taskManager.findFreeSlot(day.plusMinutes(90), Duration.ofMinutes(60)),
+                "Слот пересекается с задачей нулевой длительности");
+        assertEquals(day.plusMinutes(420), taskManager.findFreeSlot(day.plusMinutes(240), Duration.ofMinutes(90)),
+                "Не найден слот после расписания");
+        assertEquals(day.plusMinutes(240), taskManager.findFreeSlot(day.plusMinutes(200), Duration.ZERO),
+                "Задача нулевой длительности поставлена внутрь другой");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlot(day, Duration.ofMinutes(-1)),
+                "Принята отрицательная длительность");
+
+        for (int start = 0; start < 480; start += 10) {
+            for (int minutes : new int[]{0, 10, 30, 60, 100}) {
+                LocalDateTime notBefore = day.plusMinutes(start);
+                Task task = new Task("Probe", DESCRIPTION);
+                task.setStartTime(taskManager.findFreeSlot(notBefore, Duration.ofMinutes(minutes)));
+                task.setDuration(Duration.ofMinutes(minutes));
+                assertFalse(task.getStartTime().isBefore(notBefore), "Слот раньше запрошенного времени");
+                assertDoesNotThrow(() -> taskManager.addTask(task), "Найденный слот занят");
+                taskManager.removeTaskById(task.getId());
+            }
+        }
+    }
+
+    @Test
+    void epicTimeFollowsSubtasksChanges() {
+        Epic epic = taskManager.createEpic("Epic", DESCRIPTION);
+        Subtask subtask1 = new Subtask("Sub1", DESCRIPTION, epic.getId());
+        subtask1.setStartTime(LocalDateTime.of(2000, 1, 1, 10, 0));
+        subtask1.setDuration(Duration.ofMinutes(30));
+        taskManager.addSubtask(subtask1);
+        Subtask subtask2 = new Subtask("Sub2", DESCRIPTION, epic.getId());
+        subtask2.setStartTime(LocalDateTime.of(2000, 1, 1, 12, 0));
+        subtask2.setDuration(Duration.ofMinutes(60));
+        taskManager.addSubtask(subtask2);
+
+        assertEquals(LocalDateTime.of(2000, 1, 1, 10, 0), epic.getStartTime(), "Неверное начало эпика");
+        assertEquals(Duration.ofMinutes(90), epic.getDuration(), "Неверная длительность эпика");
+        assertEquals(LocalDateTime.of(2000, 1, 1, 13, 0), taskManager.getEndTime(epic.getId()),
+                "Неверное окончание эпика");
 
-}
\ No newline at end of file
+        taskManager.updateStartTime(LocalDateTime.of(2000, 1, 1, 14, 0), subtask1.getId());
+        assertEquals(LocalDateTime.of(2000, 1, 1, 12, 0), epic.getStartTime(),
+                "Начало эпика не обновилось после переноса подзадачи");
+        assertEquals(LocalDateTime.of(2000, 1, 1, 14, 30), taskManager.getEndTime(epic.getId()),
+                "Окончание эпика не обновилось после переноса подзадачи");
+
+        taskManager.updateDuration(Duration.ofMinutes(90), subtask2.getId());
+        assertEquals(Duration.ofMinutes(120), epic.getDuration(),
+                "Длительность эпика не обновилась после изменения подзадачи");
+
+        taskManager.updateStatus(TaskStatus.DONE, subtask1.getId());
+        assertEquals(Duration.ofMinutes(90), epic.getDuration(), "Выполненная подзадача учтена в длительности");
+        assertEquals(LocalDateTime.of(2000, 1, 1, 13, 30), taskManager.getEndTime(epic.getId()),
+                "Выполненная подзадача учтена в окончании эпика");
+    }
+}
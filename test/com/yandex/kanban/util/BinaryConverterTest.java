@@ -0,0 +1,67 @@
+package com.yandex.kanban.util;
+
+import com.yandex.kanban.model.Epic;
+import com.yandex.kanban.model.Subtask;
+import com.yandex.kanban.model.Task;
+import com.yandex.kanban.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryConverterTest {
+    public static final String DESCRIPTION = "description";
+
+    @Test
+    public void recordsRoundTrip() {
+        Task task = new Task("Задача", null);
+        task.setId(300);
+        task.setStatus(TaskStatus.DONE);
+        task.setStartTime(LocalDateTime.of(1960, 1, 2, 3, 4));
+        task.setDuration(Duration.ofMinutes(90));
+        Epic epic = new Epic("Epic", DESCRIPTION);
+        epic.setId(2);
+        epic.setSubtasksIds(List.of(3, 100_000));
+        Epic emptyEpic = new Epic("Empty epic", DESCRIPTION);
+        emptyEpic.setId(4);
+        Subtask subtask = new Subtask("Subtask", DESCRIPTION);
+        subtask.setId(3);
+        subtask.setEpicId(2);
+        subtask.setStatus(TaskStatus.IN_PROGRESS);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryConverter.writeHeader(out);
+        BinaryConverter.writeRecord(out, task, 1, true);
+        BinaryConverter.writeRecord(out, epic, -1, false);
+        BinaryConverter.writeRecord(out, emptyEpic, 0, false);
+        BinaryConverter.writeRecord(out, subtask, -1, false);
+        byte[] bytes = out.toByteArray();
+        assertTrue(BinaryConverter.hasHeader(bytes), "Не записан заголовок");
+
+        List<TaskRecord> records = BinaryConverter.readRecords(ByteBuffer.wrap(bytes));
+        assertEquals(4, records.size(), "Неверное количество записей");
+        assertEquals(task.toString(), records.get(0).getTask().toString(), "Задача не восстановлена");
+        assertEquals(1, records.get(0).getHistoryManagerPosition(), "Неверная позиция в истории");
+        assertTrue(records.get(0).isInPrioritizedTasks(), "Потерян признак приоритетной задачи");
+        assertEquals(epic.toString(), records.get(1).getTask().toString(), "Эпик не восстановлен");
+        assertEquals(-1, records.get(1).getHistoryManagerPosition(), "Неверная позиция в истории");
+        assertEquals(emptyEpic.toString(), records.get(2).getTask().toString(), "Пустой эпик не восстановлен");
+        assertEquals(subtask.toString(), records.get(3).getTask().toString(), "Подзадача не восстановлена");
+    }
+
+    @Test
+    public void unsupportedVersionIsRejected() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryConverter.writeHeader(out);
+        byte[] bytes = out.toByteArray();
+        bytes[bytes.length - 1] = BinaryConverter.VERSION + 1;
+
+        assertThrows(IllegalStateException.class, () -> BinaryConverter.readRecords(ByteBuffer.wrap(bytes)),
+                "Прочитан файл неизвестной версии");
+    }
+}
@@ -50,6 +50,52 @@ public class ConverterTest {
         assertEquals(epic.toString(), restored.toString());
     }
 
+    @Test
+    public void epicWithoutSubtasksToStringTest() {
+        Epic epic = new Epic("Epic", DESCRIPTION);
+        epic.setId(4);
+        String toString = Converter.taskToString(epic, -1, false);
+        Task restored = Converter.stringToTask(toString);
+
+        assertEquals(epic.toString(), restored.toString());
+    }
+
+    @Test
+    public void savedLinesFormatTest() {
+        Task task = new Task("Task", DESCRIPTION);
+        task.setId(1);
+        task.setStartTime(LocalDateTime.of(2022, 2, 3, 4, 5));
+        task.setDuration(Duration.ofMinutes(90));
+        Epic epic = new Epic("Epic", null);
+        epic.setId(2);
+        epic.setSubtasksIds(List.of(3, 4));
+        Subtask subtask = new Subtask("Subtask", DESCRIPTION, 2);
+        subtask.setId(3);
+        subtask.setStatus(TaskStatus.IN_PROGRESS);
+        subtask.setStartTime(LocalDateTime.of(999, 12, 31, 23, 59));
+
+        assertEquals("1;TASK;Task;description;NEW;03-02-2022 04:05;90;0;true",
+                Converter.taskToString(task, 0, true), "Неверный формат задачи");
+        assertEquals("2;EPIC;Epic;null;NEW;null;0;[3, 4];-1;false",
+                Converter.taskToString(epic, -1, true), "Неверный формат эпика");
+        assertEquals("3;SUBTASK;Subtask;description;IN_PROGRESS;31-12-0999 23:59;0;2;1;false",
+                Converter.taskToString(subtask, 1, false), "Неверный формат подзадачи");
+        assertEquals(subtask.toString(), Converter.stringToTask(Converter.taskToString(subtask, 1, false)).toString(),
+                "Подзадача не восстановлена");
+    }
+
+    @Test
+    public void stringToRecordTest() {
+        Task task = new Task("Task", DESCRIPTION);
+        task.setId(2);
+        task.setStartTime(LocalDateTime.of(2022, 12, 11, 9, 0));
+        TaskRecord record = Converter.stringToRecord(Converter.taskToString(task, 5, true));
+
+        assertEquals(task.toString(), record.getTask().toString(), "Задача не восстановлена");
+        assertEquals(5, record.getHistoryManagerPosition(), "Неверная позиция в истории");
+        assertTrue(record.isInPrioritizedTasks(), "Потерян признак приоритетной задачи");
+    }
+
     @Test
     public void taskToStringTestWithDateTime() {
         Task task = new Task("Task", DESCRIPTION);